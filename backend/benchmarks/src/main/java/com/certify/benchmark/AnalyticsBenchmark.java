@@ -0,0 +1,87 @@
+package com.certify.benchmark;
+
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.certify.repository.CertificateAggregate;
+import com.certify.repository.CertificateRepository;
+import com.certify.service.CertificateService;
+import com.certify.service.CertificateStatsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Staff dashboard strategies side by side: the original findAll() plus
+// in-memory counting, the $facet aggregation, and the maintained counters
+// the service reads today
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AnalyticsBenchmark {
+    
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+    
+    private MongoStandIn mongo;
+    private ConfigurableApplicationContext context;
+    private CertificateService certificateService;
+    private CertificateRepository certificateRepository;
+    private String studentUsername;
+    
+    @Setup
+    public void setup() {
+        mongo = MongoStandIn.start("analytics_bench");
+        context = BenchmarkApplication.start(mongo, -1);
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        certificateService = context.getBean(CertificateService.class);
+        certificateRepository = context.getBean(CertificateRepository.class);
+        
+        List<User> students = Seed.users(mongoTemplate, Math.max(10, Math.min(1000, size / 100)), "unused");
+        Seed.insertInBatches(mongoTemplate, Seed.certificates(size, students, 42));
+        context.getBean(CertificateStatsService.class).reconcile();
+        studentUsername = students.get(0).getUsername();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+        mongo.close();
+    }
+    
+    @Benchmark
+    public Map<String, Object> staffLegacyFindAll() {
+        List<Certificate> allCertificates = certificateRepository.findAll();
+        
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("totalCertificates", allCertificates.size());
+        analytics.put("pendingReview", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.PENDING ? 1 : 0).sum());
+        analytics.put("verified", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.VERIFIED ? 1 : 0).sum());
+        analytics.put("rejected", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.REJECTED ? 1 : 0).sum());
+        analytics.put("recentActivity", allCertificates.stream()
+            .sorted((a, b) -> b.getUploadDate().compareTo(a.getUploadDate()))
+            .limit(10)
+            .toList());
+        return analytics;
+    }
+    
+    @Benchmark
+    public CertificateAggregate staffFacetAggregation() {
+        return certificateRepository.aggregateByStatus(null, 10);
+    }
+    
+    @Benchmark
+    public Map<String, Object> staffCounters() {
+        return certificateService.getStaffAnalytics();
+    }
+    
+    @Benchmark
+    public Map<String, Object> studentCounters() {
+        return certificateService.getStudentAnalytics(studentUsername);
+    }
+}
@@ -0,0 +1,60 @@
+package com.certify.benchmark;
+
+import com.certify.CertificateSystemApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the real application against a MongoStandIn with startup checks and
+// scheduled jobs that would skew measurements turned off
+public final class BenchmarkApplication {
+    
+    private BenchmarkApplication() {
+    }
+    
+    public static ConfigurableApplicationContext start(MongoStandIn mongo, int port, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+            "spring.data.mongodb.uri=" + mongo.getUri(),
+            "spring.data.mongodb.database=" + databaseName(mongo.getUri()),
+            "mongo.query-plan-check=off",
+            "stats.reconcile.cron=-",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN",
+            "storage.disk-cache.directory=" + tempDirectory()
+        ));
+        if (port >= 0) {
+            properties.add("server.port=" + port);
+            properties.add("management.server.port=0");
+        }
+        properties.addAll(List.of(extraProperties));
+        
+        // As command-line arguments, so they win over application.properties
+        return new SpringApplicationBuilder(CertificateSystemApplication.class)
+            .web(port >= 0 ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+            .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+    
+    private static String databaseName(String uri) {
+        String path = uri.substring(uri.indexOf("//") + 2);
+        int slash = path.indexOf('/');
+        if (slash < 0 || slash == path.length() - 1) {
+            return "certificate_db";
+        }
+        String name = path.substring(slash + 1);
+        int query = name.indexOf('?');
+        return query < 0 ? name : name.substring(0, query);
+    }
+    
+    private static String tempDirectory() {
+        try {
+            return Files.createTempDirectory("certificate-bench-cache").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.certify.benchmark;
+
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response serialization of certificate lists with the same ObjectMapper
+// defaults Spring Boot configures
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateJsonBenchmark {
+    
+    @Param({ "10", "100", "1000", "10000" })
+    private int size;
+    
+    private ObjectMapper objectMapper;
+    private List<Certificate> certificates;
+    
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User student = new User();
+            student.setId("student" + i);
+            student.setFullName("Student " + i);
+            students.add(student);
+        }
+        certificates = Seed.certificates(size, students, 42);
+        for (int i = 0; i < certificates.size(); i++) {
+            certificates.get(i).setCertificateId(String.format("%024x", i));
+        }
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(certificates);
+    }
+}
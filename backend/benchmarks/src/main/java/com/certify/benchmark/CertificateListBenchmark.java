@@ -0,0 +1,93 @@
+package com.certify.benchmark;
+
+import com.certify.model.Certificate;
+import com.certify.model.CertificatePosition;
+import com.certify.model.CertificateProjection;
+import com.certify.model.User;
+import com.certify.service.CertificateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A list page for the full document and for ?fields=summary. page() runs the
+// service end to end below HTTP; against the in-process stand-in its time is
+// mostly the unindexed query, so decodeAndEncode() isolates the per-page work
+// the projection saves: mapping the documents Mongo returned and writing the
+// JSON. Setup prints the response size of one page for each shape.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateListBenchmark {
+    
+    @Param({ "FULL", "SUMMARY" })
+    private CertificateProjection projection;
+    
+    @Param({ "100" })
+    private int pageSize;
+    
+    private MongoStandIn mongo;
+    private ConfigurableApplicationContext context;
+    private CertificateService certificateService;
+    private ObjectMapper objectMapper;
+    private MongoConverter converter;
+    private List<Document> rawPage;
+    
+    @Setup
+    public void setup() throws Exception {
+        mongo = MongoStandIn.start("list_bench");
+        context = BenchmarkApplication.start(mongo, -1);
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        certificateService = context.getBean(CertificateService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        converter = mongoTemplate.getConverter();
+        
+        List<User> students = Seed.users(mongoTemplate, 100, "unused");
+        Seed.insertInBatches(mongoTemplate, Seed.certificates(10_000, students, 42));
+        
+        // The documents the repository query receives for this shape
+        Query query = new Query(Criteria.where("status").is(Certificate.Status.VERIFIED))
+            .with(Sort.by(Sort.Direction.DESC, "uploadDate", "_id"))
+            .limit(pageSize);
+        if (projection == CertificateProjection.SUMMARY) {
+            query.fields().include("_id", "studentId", "studentName", "certificateName", "fileName", "fileType",
+                "fileSize", "uploadDate", "status");
+        }
+        rawPage = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Certificate.class));
+        
+        System.out.println("Payload bytes per page (" + projection + ", " + pageSize + " rows): " + page().length);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+        mongo.close();
+    }
+    
+    @Benchmark
+    public byte[] page() throws Exception {
+        return objectMapper.writeValueAsBytes(certificateService.getCertificatePage(
+            Certificate.Status.VERIFIED, null, null, null, null, pageSize, projection.getType()));
+    }
+    
+    @Benchmark
+    public byte[] decodeAndEncode() throws Exception {
+        Class<? extends CertificatePosition> type = projection.getType();
+        List<CertificatePosition> rows = new ArrayList<>(rawPage.size());
+        for (Document document : rawPage) {
+            rows.add(converter.read(type, document));
+        }
+        return objectMapper.writeValueAsBytes(rows);
+    }
+}
@@ -0,0 +1,113 @@
+package com.certify.benchmark;
+
+import com.certify.controller.StaffController;
+import com.certify.controller.StudentController;
+import com.certify.model.Certificate;
+import com.certify.repository.CertificateRepository;
+import com.certify.service.CertificateService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Certificate lookup as the view/download endpoints do it, called on the
+// controller beans directly so HTTP and security overhead stay out of the number
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CertificateLookupBenchmark {
+    
+    @Param({ "262144" })
+    private int fileSize;
+    
+    private MongoStandIn mongo;
+    private ConfigurableApplicationContext context;
+    private CertificateService certificateService;
+    private CertificateRepository certificateRepository;
+    private StudentController studentController;
+    private StaffController staffController;
+    private Authentication student;
+    private String certificateId;
+    private String etag;
+    
+    @Setup
+    public void setup() {
+        mongo = MongoStandIn.start("lookup_bench");
+        context = BenchmarkApplication.start(mongo, -1);
+        certificateService = context.getBean(CertificateService.class);
+        certificateRepository = context.getBean(CertificateRepository.class);
+        studentController = context.getBean(StudentController.class);
+        staffController = context.getBean(StaffController.class);
+        student = new UsernamePasswordAuthenticationToken("student1", null, List.of());
+        
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Certificate certificate = certificateService.uploadCertificate("student1", "Benchmark Certificate",
+            new MockMultipartFile("file", "benchmark.pdf", "application/pdf", content));
+        certificateId = certificate.getCertificateId();
+        etag = "\"" + certificate.getFileHash() + "\"";
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+        mongo.close();
+    }
+    
+    @Benchmark
+    public Optional<Certificate> findByIdCached() {
+        return certificateService.findById(certificateId);
+    }
+    
+    @Benchmark
+    public Optional<Certificate> findByIdRepository() {
+        return certificateRepository.findById(certificateId);
+    }
+    
+    @Benchmark
+    public ResponseEntity<?> studentViewNotModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/certificates/" + certificateId + "/view");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return studentController.viewCertificate(certificateId, student,
+            new ServletWebRequest(request, new MockHttpServletResponse()));
+    }
+    
+    @Benchmark
+    public long studentViewFull() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/certificates/" + certificateId + "/view");
+        ResponseEntity<?> response = studentController.viewCertificate(certificateId, student,
+            new ServletWebRequest(request, new MockHttpServletResponse()));
+        return drain((Resource) response.getBody());
+    }
+    
+    @Benchmark
+    public long staffDownloadFull() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/staff/certificates/" + certificateId + "/download");
+        ResponseEntity<?> response = staffController.downloadCertificate(certificateId, null,
+            new ServletWebRequest(request, new MockHttpServletResponse()));
+        return drain((Resource) response.getBody());
+    }
+    
+    private static long drain(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.certify.benchmark;
+
+import com.certify.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.concurrent.TimeUnit;
+
+// Authentication cost per request. legacyThreeParses is what the filter did
+// before tokens were parsed once and cached: validate, extractUsername and
+// extractRole, each rebuilding the key and parser. parseUncached is one
+// signature check with a prebuilt parser, the cost authenticate pays on a
+// cache miss.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "your-secret-key-change-this-in-production-min-256-bits";
+    
+    private JwtUtil jwtUtil;
+    private JwtParser parser;
+    private String token;
+    
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10_000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("student1", "STUDENT");
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build();
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("student1", "STUDENT");
+    }
+    
+    @Benchmark
+    public String parseUncached() {
+        return parser.parseSignedClaims(token).getPayload().getSubject();
+    }
+    
+    @Benchmark
+    public JwtUtil.TokenDetails authenticateCached() {
+        return jwtUtil.authenticate(token).orElseThrow();
+    }
+    
+    @Benchmark
+    public String legacyThreeParses() {
+        legacyParse(token);
+        String username = legacyParse(token).getSubject();
+        String role = legacyParse(token).get("role", String.class);
+        return username + role;
+    }
+    
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
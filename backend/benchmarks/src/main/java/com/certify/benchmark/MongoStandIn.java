@@ -0,0 +1,44 @@
+package com.certify.benchmark;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import java.net.InetSocketAddress;
+
+// In-process MongoDB wire-protocol server backed by memory, so benchmarks and
+// load tests run on one box without a mongod. Set -Dbench.mongo.uri to run
+// against a real server instead; absolute numbers only mean something there.
+public final class MongoStandIn implements AutoCloseable {
+    
+    private final MongoServer server;
+    private final String uri;
+    
+    private MongoStandIn(MongoServer server, String uri) {
+        this.server = server;
+        this.uri = uri;
+    }
+    
+    public static MongoStandIn start(String database) {
+        String external = System.getProperty("bench.mongo.uri");
+        if (external != null && !external.isBlank()) {
+            return new MongoStandIn(null, external);
+        }
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        return new MongoStandIn(server, "mongodb://127.0.0.1:" + address.getPort() + "/" + database);
+    }
+    
+    public String getUri() {
+        return uri;
+    }
+    
+    public boolean isInMemory() {
+        return server != null;
+    }
+    
+    @Override
+    public void close() {
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+}
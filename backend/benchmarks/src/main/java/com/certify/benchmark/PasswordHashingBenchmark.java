@@ -0,0 +1,38 @@
+package com.certify.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.util.concurrent.TimeUnit;
+
+// BCrypt cost per auth.bcrypt.strength; each step doubles the work, which
+// sizes auth.hashing.threads for a target login rate
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    
+    @Param({ "8", "10", "12" })
+    private int strength;
+    
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+    
+    @Setup
+    public void setup() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("password123");
+    }
+    
+    @Benchmark
+    public String encode() {
+        return encoder.encode("password123");
+    }
+    
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("password123", hash);
+    }
+}
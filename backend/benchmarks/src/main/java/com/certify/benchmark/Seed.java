@@ -0,0 +1,76 @@
+package com.certify.benchmark;
+
+import com.certify.model.Certificate;
+import com.certify.model.CertificateMetadata;
+import com.certify.model.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic test data: the same counts always produce the same documents
+public final class Seed {
+    
+    private static final String[] NAMES = { "Asha", "Ben", "Chen", "Divya", "Elena", "Farid", "Grace", "Hiro", "Ivan", "Joy" };
+    private static final String[] COURSES = { "Data Structures", "Cloud Fundamentals", "Machine Learning",
+                                              "Network Security", "Web Development", "Databases" };
+    
+    private Seed() {
+    }
+    
+    // Students share one pre-computed hash so seeding does not spend minutes in BCrypt
+    public static List<User> users(MongoTemplate mongoTemplate, int count, String passwordHash) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername("loadstudent" + i);
+            user.setPassword(passwordHash);
+            user.setFullName(NAMES[i % NAMES.length] + " Student" + i);
+            user.setEmail("loadstudent" + i + "@example.com");
+            user.setRole(User.Role.STUDENT);
+            users.add(user);
+        }
+        insertInBatches(mongoTemplate, users);
+        return users;
+    }
+    
+    public static List<Certificate> certificates(int count, List<User> students, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<Certificate> certificates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User student = students.get(i % students.size());
+            Certificate certificate = new Certificate();
+            certificate.setStudentId(student.getId());
+            certificate.setStudentName(student.getFullName());
+            certificate.setCertificateName(COURSES[random.nextInt(COURSES.length)] + " " + i);
+            certificate.setFileName("certificate-" + i + ".pdf");
+            certificate.setFileType("application/pdf");
+            certificate.setUploadDate(now.minusMinutes(random.nextInt(525_600)));
+            int status = random.nextInt(10);
+            certificate.setStatus(status < 5 ? Certificate.Status.PENDING :
+                                  status < 9 ? Certificate.Status.VERIFIED : Certificate.Status.REJECTED);
+            if (certificate.getStatus() != Certificate.Status.PENDING) {
+                certificate.setVerifiedBy("staff1");
+                certificate.setVerifiedDate(certificate.getUploadDate().plusDays(1));
+                certificate.setStaffRemarks("Checked against the issuing organization");
+            }
+            CertificateMetadata metadata = new CertificateMetadata();
+            metadata.setCertificateType("Course Completion");
+            metadata.setIssuingOrganization("Example University");
+            metadata.setIssueYear(String.valueOf(2020 + random.nextInt(6)));
+            metadata.setDepartment("Computer Science");
+            certificate.setMetadata(metadata);
+            certificates.add(certificate);
+        }
+        return certificates;
+    }
+    
+    public static <T> void insertInBatches(MongoTemplate mongoTemplate, List<T> documents) {
+        int batchSize = 10_000;
+        for (int from = 0; from < documents.size(); from += batchSize) {
+            mongoTemplate.insertAll(documents.subList(from, Math.min(from + batchSize, documents.size())));
+        }
+    }
+}
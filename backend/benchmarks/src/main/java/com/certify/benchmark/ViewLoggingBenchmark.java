@@ -0,0 +1,90 @@
+package com.certify.benchmark;
+
+import com.certify.controller.StudentController;
+import com.certify.model.Certificate;
+import com.certify.service.CertificateService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of /view under concurrency with the controller's logging as it is
+// now (async appender, debug rate-limited) against the same call preceded by
+// the synchronous println lines the view path used to write. The stdout
+// stand-in is a real file descriptor, so every line still takes the shared
+// PrintStream lock and a write syscall, as with stdout redirected to a file.
+// The 304 path is used so that logging is a visible share of the request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ViewLoggingBenchmark {
+    
+    // Level for com.certify.controller; DEBUG exercises the rate limiter
+    @Param({ "INFO", "DEBUG" })
+    private String controllerLogLevel;
+    
+    private MongoStandIn mongo;
+    private ConfigurableApplicationContext context;
+    private StudentController studentController;
+    private Authentication student;
+    private String certificateId;
+    private String etag;
+    private PrintStream stdout;
+    
+    @Setup
+    public void setup() throws FileNotFoundException {
+        mongo = MongoStandIn.start("view_logging_bench");
+        context = BenchmarkApplication.start(mongo, -1, "logging.level.com.certify.controller=" + controllerLogLevel);
+        studentController = context.getBean(StudentController.class);
+        student = new UsernamePasswordAuthenticationToken("student1", null, List.of());
+        
+        Certificate certificate = context.getBean(CertificateService.class).uploadCertificate("student1",
+            "Benchmark Certificate", new MockMultipartFile("file", "benchmark.pdf", "application/pdf", new byte[4096]));
+        certificateId = certificate.getCertificateId();
+        etag = "\"" + certificate.getFileHash() + "\"";
+        
+        stdout = new PrintStream(new FileOutputStream("/dev/null"), true);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        stdout.close();
+        context.close();
+        mongo.close();
+    }
+    
+    @Benchmark
+    public ResponseEntity<?> view() {
+        return studentController.viewCertificate(certificateId, student, notModifiedRequest());
+    }
+    
+    @Benchmark
+    public ResponseEntity<?> viewWithStdoutLogging() {
+        stdout.println("StudentController: viewCertificate called with ID: " + certificateId);
+        ResponseEntity<?> response = studentController.viewCertificate(certificateId, student, notModifiedRequest());
+        stdout.println("StudentController: Found certificate: Benchmark Certificate");
+        stdout.println("StudentController: Certificate file ID: " + certificateId);
+        return response;
+    }
+    
+    private ServletWebRequest notModifiedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/certificates/" + certificateId + "/view");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
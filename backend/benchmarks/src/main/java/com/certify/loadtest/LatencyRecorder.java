@@ -0,0 +1,52 @@
+package com.certify.loadtest;
+
+import java.util.Arrays;
+
+// Raw latency samples for one operation within one stage. Load-test stages
+// are seconds to minutes long, so keeping every sample is cheap and the
+// percentiles are exact.
+final class LatencyRecorder {
+    
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+    private long dropped;
+    
+    synchronized void record(long latencyNanos, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+    
+    synchronized void drop() {
+        dropped++;
+    }
+    
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, dropped, count / seconds,
+            percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+            count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+    
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+    
+    record Summary(long requests, long errors, long dropped, double throughput,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+        
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.certify.loadtest;
+
+import com.certify.benchmark.BenchmarkApplication;
+import com.certify.benchmark.MongoStandIn;
+import com.certify.benchmark.Seed;
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.certify.security.JwtUtil;
+import com.certify.service.CertificateSearchIndex;
+import com.certify.service.CertificateService;
+import com.certify.service.CertificateStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// End-to-end load test: boots CertificateSystemApplication on a random port
+// against a MongoStandIn, seeds users and certificates, then drives a mixed
+// workload over HTTP at fixed arrival rates. Latency is measured from each
+// request's scheduled start, so a saturated server shows up as queueing in
+// the percentiles instead of as a lower request rate.
+//
+//   java -cp benchmarks.jar com.certify.loadtest.LoadTest --rates=50,100,200 --duration=30s
+//
+// Options (defaults in brackets):
+//   --users=N [200]            --certificates=N [10000]   --files=N [50]
+//   --file-size=BYTES [262144] --upload-size=BYTES [131072]
+//   --rates=R1,R2,... [50,100] requests per second, one stage per rate
+//   --duration=30s [30s]       --warmup=10s [10s]          --max-in-flight=N [2000]
+//   --mix=login=5,upload=5,list=25,view=40,verify=10,analytics=15[,download=0]
+//   --reactive                 send views to /api/reactive (adds storage.reactive.enabled=true)
+//   --concurrency=N1,N2,...    instead of fixed rates, keep N requests open at once, one stage per N;
+//                              each finished request is replaced at once
+//   --read-rate=BYTES [0]      read each response body no faster than this many bytes/s (0 = at once),
+//                              so with --concurrency the server holds N slow downloads
+//   --json=FILE                also write the report as JSON
+//   --app.KEY=VALUE            extra application property, e.g. --app.spring.threads.virtual.enabled=true
+public final class LoadTest {
+    
+    static final String PASSWORD = "password123";
+    
+    private LoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "200"));
+        int certificates = Integer.parseInt(options.getOrDefault("certificates", "10000"));
+        int files = Integer.parseInt(options.getOrDefault("files", "50"));
+        int fileSize = Integer.parseInt(options.getOrDefault("file-size", "262144"));
+        int uploadSize = Integer.parseInt(options.getOrDefault("upload-size", "131072"));
+        Duration duration = duration(options.getOrDefault("duration", "30s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "2000"));
+        boolean reactive = options.containsKey("reactive");
+        Map<Workload.Operation, Integer> mix = mix(options.getOrDefault("mix",
+            "login=5,upload=5,list=25,view=40,verify=10,analytics=15"));
+        List<Integer> rates = integers(options.getOrDefault("rates", "50,100"));
+        List<Integer> concurrencies = options.containsKey("concurrency") ? integers(options.get("concurrency")) : List.of();
+        long readRate = Long.parseLong(options.getOrDefault("read-rate", "0"));
+        
+        List<String> appProperties = new ArrayList<>();
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                appProperties.add(key.substring(4) + "=" + value);
+            }
+        });
+        if (reactive) {
+            appProperties.add("storage.reactive.enabled=true");
+        }
+        if (readRate > 0) {
+            // Fixed socket buffers on both ends (see SocketBufferConfig) turn off autotuning,
+            // which on loopback would take in whole files and hide the slow reader from the server
+            System.setProperty("jdk.httpclient.receiveBufferSize", "16384");
+            appProperties.add("loadtest.socket-send-buffer=16384");
+        }
+        
+        try (MongoStandIn mongo = MongoStandIn.start("load_test")) {
+            ConfigurableApplicationContext context = BenchmarkApplication.start(mongo, 0, appProperties.toArray(String[]::new));
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                System.out.println("LoadTest: Server on port " + port + (mongo.isInMemory() ? " (in-memory Mongo stand-in)" : ""));
+                
+                Workload workload = seed(context, "http://localhost:" + port, users, certificates, files, fileSize,
+                    uploadSize, reactive, mix);
+                HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+                
+                List<Map<String, Object>> stages = new ArrayList<>();
+                if (concurrencies.isEmpty()) {
+                    if (!warmup.isZero()) {
+                        System.out.println("LoadTest: Warming up for " + warmup.toSeconds() + "s at " + rates.get(0) + " req/s");
+                        runStage(client, workload, rates.get(0), warmup, maxInFlight);
+                    }
+                    for (int rate : rates) {
+                        System.out.println("LoadTest: Running " + duration.toSeconds() + "s at " + rate + " req/s");
+                        Map<String, Object> stage = runStage(client, workload, rate, duration, maxInFlight);
+                        print(stage);
+                        stages.add(stage);
+                    }
+                } else {
+                    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+                    try {
+                        if (!warmup.isZero()) {
+                            System.out.println("LoadTest: Warming up for " + warmup.toSeconds() + "s with " +
+                                               concurrencies.get(0) + " open requests");
+                            runConcurrencyStage(client, workload, concurrencies.get(0), warmup, readRate, scheduler);
+                        }
+                        for (int concurrency : concurrencies) {
+                            System.out.println("LoadTest: Running " + duration.toSeconds() + "s with " + concurrency +
+                                               " open requests" + (readRate > 0 ? " read at " + readRate + " B/s" : ""));
+                            Map<String, Object> stage = runConcurrencyStage(client, workload, concurrency, duration,
+                                readRate, scheduler);
+                            print(stage);
+                            stages.add(stage);
+                        }
+                    } finally {
+                        scheduler.shutdownNow();
+                    }
+                }
+                
+                if (options.containsKey("json")) {
+                    Map<String, Object> report = new LinkedHashMap<>();
+                    report.put("options", options);
+                    report.put("mongo", mongo.isInMemory() ? "in-memory" : "external");
+                    report.put("stages", stages);
+                    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(new File(options.get("json")), report);
+                    System.out.println("LoadTest: Report written to " + options.get("json"));
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+    
+    private static Workload seed(ConfigurableApplicationContext context, String baseUrl, int userCount,
+                                 int certificateCount, int fileCount, int fileSize, int uploadSize,
+                                 boolean reactive, Map<Workload.Operation, Integer> mix) {
+        long start = System.currentTimeMillis();
+        MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+        JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+        CertificateService certificateService = context.getBean(CertificateService.class);
+        
+        String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> students = Seed.users(mongoTemplate, userCount, passwordHash);
+        List<Certificate> seeded = Seed.certificates(certificateCount, students, 42);
+        Seed.insertInBatches(mongoTemplate, seeded);
+        
+        List<String> pending = new ArrayList<>();
+        for (Certificate certificate : seeded) {
+            if (certificate.getStatus() == Certificate.Status.PENDING) {
+                pending.add(certificate.getCertificateId());
+            }
+        }
+        Collections.shuffle(pending, new Random(42));
+        Queue<String> pendingQueue = new ConcurrentLinkedQueue<>(pending);
+        
+        Random random = new Random(42);
+        List<String> fileCertificateIds = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            byte[] content = new byte[fileSize];
+            random.nextBytes(content);
+            User owner = students.get(i % students.size());
+            fileCertificateIds.add(certificateService.uploadCertificate(owner.getUsername(), "Seeded File " + i,
+                new MockMultipartFile("file", "seeded-" + i + ".pdf", "application/pdf", content)).getCertificateId());
+        }
+        
+        context.getBean(CertificateStatsService.class).reconcile();
+        context.getBean(CertificateSearchIndex.class).rebuild();
+        
+        List<String> usernames = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (User student : students) {
+            usernames.add(student.getUsername());
+            tokens.add(jwtUtil.generateToken(student.getUsername(), User.Role.STUDENT.name()));
+        }
+        String staffToken = jwtUtil.generateToken("staff1", User.Role.STAFF.name());
+        
+        System.out.println("LoadTest: Seeded " + userCount + " students, " + certificateCount + " certificates and " +
+                           fileCount + " files in " + (System.currentTimeMillis() - start) + "ms");
+        return new Workload(baseUrl, usernames, tokens, staffToken, fileCertificateIds, pendingQueue, reactive,
+            uploadSize, mix);
+    }
+    
+    private static Map<String, Object> runStage(HttpClient client, Workload workload, int rate, Duration duration,
+                                                int maxInFlight) throws InterruptedException {
+        Map<Workload.Operation, LatencyRecorder> recorders = new EnumMap<>(Workload.Operation.class);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        AtomicInteger inFlight = new AtomicInteger();
+        ResourceSampler sampler = new ResourceSampler();
+        sampler.start();
+        
+        Random random = new Random();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            Workload.Operation operation = workload.next(random);
+            LatencyRecorder recorder = recorders.get(operation);
+            if (inFlight.get() >= maxInFlight) {
+                recorder.drop();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(workload.build(operation, random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - scheduled;
+                    boolean failed = error != null || (response.statusCode() >= 400);
+                    recorder.record(latency, failed);
+                    inFlight.decrementAndGet();
+                });
+        }
+        
+        // Let the stragglers finish so their latency is counted
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.stop();
+        
+        Map<String, Object> stage = new LinkedHashMap<>();
+        stage.put("targetRate", rate);
+        stage.put("seconds", seconds);
+        Map<String, LatencyRecorder.Summary> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            LatencyRecorder.Summary summary = recorder.summarize(seconds);
+            if (summary.requests() > 0 || summary.dropped() > 0) {
+                operations.put(operation.name().toLowerCase(), summary);
+            }
+        });
+        stage.put("operations", operations);
+        stage.put("peakThreads", sampler.peakThreads.get());
+        stage.put("peakHeapMb", sampler.peakHeapBytes.get() / (1024 * 1024));
+        return stage;
+    }
+    
+    // Closed loop: `concurrency` requests are kept open for the whole stage,
+    // each replaced as soon as it finishes, and bodies are read at `readRate`.
+    // Latency is from send to the last body byte. Reports how many responses
+    // were streaming at once, i.e. how many the server was actually serving.
+    private static Map<String, Object> runConcurrencyStage(HttpClient client, Workload workload, int concurrency,
+                                                           Duration duration, long readRate,
+                                                           ScheduledExecutorService scheduler) throws InterruptedException {
+        Map<Workload.Operation, LatencyRecorder> recorders = new EnumMap<>(Workload.Operation.class);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        AtomicLong streaming = new AtomicLong();
+        AtomicLong peakStreaming = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(concurrency);
+        ResourceSampler sampler = new ResourceSampler();
+        sampler.start();
+        ScheduledFuture<?> streamingSampler = scheduler.scheduleAtFixedRate(
+            () -> peakStreaming.accumulateAndGet(streaming.get(), Math::max), 0, 100, TimeUnit.MILLISECONDS);
+        
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (int i = 0; i < concurrency; i++) {
+            sendClosedLoop(client, workload, new Random(i), recorders, end, readRate, scheduler, streaming, finished);
+        }
+        // Requests still open at the end finish their bodies, so their latency is counted
+        finished.await(end - System.nanoTime() + TimeUnit.SECONDS.toNanos(120), TimeUnit.NANOSECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        streamingSampler.cancel(false);
+        sampler.stop();
+        
+        Map<String, Object> stage = new LinkedHashMap<>();
+        stage.put("concurrency", concurrency);
+        stage.put("readRate", readRate);
+        stage.put("seconds", seconds);
+        Map<String, LatencyRecorder.Summary> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            LatencyRecorder.Summary summary = recorder.summarize(seconds);
+            if (summary.requests() > 0) {
+                operations.put(operation.name().toLowerCase(), summary);
+            }
+        });
+        stage.put("operations", operations);
+        stage.put("peakStreaming", peakStreaming.get());
+        stage.put("peakThreads", sampler.peakThreads.get());
+        stage.put("peakHeapMb", sampler.peakHeapBytes.get() / (1024 * 1024));
+        return stage;
+    }
+    
+    private static void sendClosedLoop(HttpClient client, Workload workload, Random random,
+                                       Map<Workload.Operation, LatencyRecorder> recorders, long end, long readRate,
+                                       ScheduledExecutorService scheduler, AtomicLong streaming, CountDownLatch finished) {
+        if (System.nanoTime() >= end) {
+            finished.countDown();
+            return;
+        }
+        Workload.Operation operation = workload.next(random);
+        long sent = System.nanoTime();
+        client.sendAsync(workload.build(operation, random),
+                responseInfo -> new PacedBodySubscriber(readRate, scheduler, streaming))
+            .whenComplete((response, error) -> {
+                recorders.get(operation).record(System.nanoTime() - sent, error != null || response.statusCode() >= 400);
+                sendClosedLoop(client, workload, random, recorders, end, readRate, scheduler, streaming, finished);
+            });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> stage) {
+        if (stage.containsKey("concurrency")) {
+            System.out.printf("%n%s open requests over %.1fs, peak streaming %s, peak threads %s, peak heap %s MB%n",
+                stage.get("concurrency"), (Double) stage.get("seconds"), stage.get("peakStreaming"),
+                stage.get("peakThreads"), stage.get("peakHeapMb"));
+        } else {
+            System.out.printf("%nTarget %s req/s over %.1fs, peak threads %s, peak heap %s MB%n",
+                stage.get("targetRate"), (Double) stage.get("seconds"), stage.get("peakThreads"), stage.get("peakHeapMb"));
+        }
+        System.out.printf("%-10s %9s %8s %8s %9s %10s %10s %10s %10s%n",
+            "operation", "requests", "errors", "dropped", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, LatencyRecorder.Summary> entry :
+                ((Map<String, LatencyRecorder.Summary>) stage.get("operations")).entrySet()) {
+            LatencyRecorder.Summary summary = entry.getValue();
+            requests += summary.requests();
+            errors += summary.errors();
+            System.out.printf("%-10s %9d %8d %8d %9.1f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                summary.requests(), summary.errors(), summary.dropped(), summary.throughput(),
+                summary.p50Ms(), summary.p99Ms(), summary.p999Ms(), summary.maxMs());
+        }
+        System.out.printf("total      %9d %8d          %9.1f   error rate %.2f%%%n%n",
+            requests, errors, requests / (Double) stage.get("seconds"), requests == 0 ? 0 : 100.0 * errors / requests);
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+    
+    private static Map<Workload.Operation, Integer> mix(String value) {
+        Map<Workload.Operation, Integer> mix = new EnumMap<>(Workload.Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            mix.put(Workload.Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+    
+    private static List<Integer> integers(String value) {
+        List<Integer> integers = new ArrayList<>();
+        for (String part : value.split(",")) {
+            integers.add(Integer.parseInt(part.trim()));
+        }
+        return integers;
+    }
+    
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+    
+    // Samples JVM-wide thread count and heap while a stage runs. The server
+    // and the load generator share the JVM, so compare runs rather than
+    // reading these as server-only figures.
+    private static final class ResourceSampler implements Runnable {
+        
+        private final AtomicLong peakThreads = new AtomicLong();
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+        private volatile boolean running;
+        private Thread thread;
+        
+        void start() {
+            running = true;
+            thread = new Thread(this, "load-test-sampler");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        
+        void stop() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+        
+        @Override
+        public void run() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            while (running) {
+                peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+                peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.certify.loadtest;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Discards a response body while reading it no faster than `bytesPerSecond`,
+// like a client on a slow link. Demand is only signalled again once the bytes
+// just received would have taken that long, so the HTTP client stops reading
+// the socket and the server sees a slow reader. No thread waits meanwhile;
+// the next request(1) is scheduled.
+final class PacedBodySubscriber implements HttpResponse.BodySubscriber<Void> {
+    
+    private final CompletableFuture<Void> body = new CompletableFuture<>();
+    private final long bytesPerSecond;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong streaming;
+    private Flow.Subscription subscription;
+    
+    PacedBodySubscriber(long bytesPerSecond, ScheduledExecutorService scheduler, AtomicLong streaming) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.scheduler = scheduler;
+        this.streaming = streaming;
+        streaming.incrementAndGet();
+    }
+    
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+    
+    @Override
+    public void onNext(List<ByteBuffer> buffers) {
+        long bytes = 0;
+        for (ByteBuffer buffer : buffers) {
+            bytes += buffer.remaining();
+            buffer.position(buffer.limit());
+        }
+        if (bytesPerSecond <= 0) {
+            subscription.request(1);
+        } else {
+            scheduler.schedule(() -> subscription.request(1),
+                TimeUnit.SECONDS.toNanos(1) * bytes / bytesPerSecond, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    @Override
+    public void onError(Throwable error) {
+        streaming.decrementAndGet();
+        body.completeExceptionally(error);
+    }
+    
+    @Override
+    public void onComplete() {
+        streaming.decrementAndGet();
+        body.complete(null);
+    }
+    
+    @Override
+    public CompletionStage<Void> getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,24 @@
+package com.certify.loadtest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Picked up by the application's component scan when LoadTest sets
+// loadtest.socket-send-buffer. A fixed send buffer turns off autotuning, so
+// on loopback the kernel cannot take in a whole file: a slow reader holds
+// the response on the server, as it would across a real network.
+@Configuration
+@ConditionalOnProperty("loadtest.socket-send-buffer")
+class SocketBufferConfig {
+    
+    @Bean
+    WebServerFactoryCustomizer<TomcatServletWebServerFactory> socketSendBuffer(
+            @Value("${loadtest.socket-send-buffer}") int bytes) {
+        return factory -> factory.addConnectorCustomizers(
+            connector -> connector.setProperty("socket.txBufSize", String.valueOf(bytes)));
+    }
+}
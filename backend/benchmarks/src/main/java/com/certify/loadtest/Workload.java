@@ -0,0 +1,114 @@
+package com.certify.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Builds one HTTP request per operation from the seeded data. Every request
+// carries the token the frontend would send for that role.
+final class Workload {
+    
+    enum Operation { LOGIN, UPLOAD, LIST, VIEW, VERIFY, ANALYTICS, DOWNLOAD }
+    
+    private final String baseUrl;
+    private final List<String> studentUsernames;
+    private final List<String> studentTokens;
+    private final String staffToken;
+    private final List<String> fileCertificateIds;
+    private final Queue<String> pendingCertificateIds;
+    private final String filePathPrefix;
+    private final int uploadBytes;
+    private final Operation[] weightedOperations;
+    
+    Workload(String baseUrl, List<String> studentUsernames, List<String> studentTokens, String staffToken,
+             List<String> fileCertificateIds, Queue<String> pendingCertificateIds, boolean reactive,
+             int uploadBytes, Map<Operation, Integer> mix) {
+        this.baseUrl = baseUrl;
+        this.studentUsernames = studentUsernames;
+        this.studentTokens = studentTokens;
+        this.staffToken = staffToken;
+        this.fileCertificateIds = fileCertificateIds;
+        this.pendingCertificateIds = pendingCertificateIds;
+        this.filePathPrefix = reactive ? "/api/reactive/certificates/" : "/api/student/certificates/";
+        this.uploadBytes = uploadBytes;
+        
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix has no positive weights");
+        }
+        this.weightedOperations = weighted.toArray(Operation[]::new);
+    }
+    
+    Operation next(Random random) {
+        return weightedOperations[random.nextInt(weightedOperations.length)];
+    }
+    
+    HttpRequest build(Operation operation, Random random) {
+        int student = random.nextInt(studentUsernames.size());
+        return switch (operation) {
+            case LOGIN -> HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "{\"username\":\"" + studentUsernames.get(student) + "\",\"password\":\"" + LoadTest.PASSWORD + "\"}"))
+                .build();
+            case UPLOAD -> upload(studentTokens.get(student), random);
+            case LIST -> authorized("/api/student/certificates/my", studentTokens.get(student)).GET().build();
+            case VIEW -> authorized(filePathPrefix + randomFile(random) + "/view", studentTokens.get(student)).GET().build();
+            case DOWNLOAD -> authorized("/api/staff/certificates/" + randomFile(random) + "/download", staffToken).GET().build();
+            case VERIFY -> {
+                String id = pendingCertificateIds.poll();
+                yield authorized("/api/staff/certificates/" + (id != null ? id : randomFile(random)) + "/verify", staffToken)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"remarks\":\"Verified by load test\"}"))
+                    .build();
+            }
+            case ANALYTICS -> random.nextBoolean()
+                ? authorized("/api/analytics/staff/dashboard", staffToken).GET().build()
+                : authorized("/api/analytics/student/dashboard", studentTokens.get(student)).GET().build();
+        };
+    }
+    
+    private HttpRequest upload(String token, Random random) {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        byte[] content = new byte[uploadBytes];
+        ThreadLocalRandom.current().nextBytes(content);
+        
+        String head = "--" + boundary + "\r\n" +
+            "Content-Disposition: form-data; name=\"certificateName\"\r\n\r\n" +
+            "Load Test Certificate " + random.nextInt(1_000_000) + "\r\n" +
+            "--" + boundary + "\r\n" +
+            "Content-Disposition: form-data; name=\"file\"; filename=\"load-test.pdf\"\r\n" +
+            "Content-Type: application/pdf\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        
+        return authorized("/api/student/certificates/upload", token)
+            .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+            .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(
+                head.getBytes(StandardCharsets.UTF_8), content, tail.getBytes(StandardCharsets.UTF_8))))
+            .build();
+    }
+    
+    private String randomFile(Random random) {
+        return fileCertificateIds.get(random.nextInt(fileCertificateIds.size()));
+    }
+    
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+    }
+    
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
@@ -2,8 +2,18 @@ package com.certify;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The reactive Mongo client is built by ReactiveFileServingConfig, only when storage.reactive.enabled is on
+@SpringBootApplication(exclude = {
+    MongoReactiveAutoConfiguration.class,
+    MongoReactiveDataAutoConfiguration.class,
+    MongoReactiveRepositoriesAutoConfiguration.class
+})
+@EnableScheduling
 public class CertificateSystemApplication {
     public static void main(String[] args) {
         SpringApplication.run(CertificateSystemApplication.class, args);
@@ -0,0 +1,81 @@
+package com.certify.config;
+
+import com.certify.model.Certificate;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String CERTIFICATES = "certificates";
+    public static final String USERS = "users";
+    
+    @Value("${cache.certificates.max-weight:33554432}")
+    private long certificatesMaxWeight;
+    
+    @Value("${cache.certificates.expire-after-write:10m}")
+    private Duration certificatesExpireAfterWrite;
+    
+    @Value("${cache.users.max-size:10000}")
+    private long usersMaxSize;
+    
+    @Value("${cache.users.expire-after-write:5m}")
+    private Duration usersExpireAfterWrite;
+    
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(CERTIFICATES, Caffeine.newBuilder()
+            .maximumWeight(certificatesMaxWeight)
+            .weigher((Object key, Object value) -> estimateSize(value))
+            .expireAfterWrite(certificatesExpireAfterWrite)
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+            .maximumSize(usersMaxSize)
+            .expireAfterWrite(usersExpireAfterWrite)
+            .recordStats()
+            .build());
+        return cacheManager;
+    }
+    
+    // Rough heap footprint of a cached certificate, so the bound holds in bytes
+    // rather than in entries when remarks or metadata get large
+    private static int estimateSize(Object value) {
+        if (!(value instanceof Certificate certificate)) {
+            return 64;
+        }
+        int size = 256;
+        size += length(certificate.getCertificateId());
+        size += length(certificate.getStudentId());
+        size += length(certificate.getStudentName());
+        size += length(certificate.getCertificateName());
+        size += length(certificate.getFileUrl());
+        size += length(certificate.getFileId());
+        size += length(certificate.getFileName());
+        size += length(certificate.getFileType());
+        size += length(certificate.getFileHash());
+        size += length(certificate.getStaffRemarks());
+        size += length(certificate.getVerifiedBy());
+        if (certificate.getMetadata() != null) {
+            size += 64;
+            size += length(certificate.getMetadata().getCertificateType());
+            size += length(certificate.getMetadata().getIssuingOrganization());
+            size += length(certificate.getMetadata().getIssueYear());
+            size += length(certificate.getMetadata().getDepartment());
+        }
+        return size;
+    }
+    
+    private static int length(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
@@ -4,6 +4,8 @@ import com.certify.model.User;
 import com.certify.model.Certificate;
 import com.certify.repository.UserRepository;
 import com.certify.repository.CertificateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataLoader implements CommandLineRunner {
     
+    private static final Logger log = LoggerFactory.getLogger(DataLoader.class);
+    
     private final UserRepository userRepository;
     private final CertificateRepository certificateRepository;
     private final PasswordEncoder passwordEncoder;
@@ -32,7 +36,7 @@ public class DataLoader implements CommandLineRunner {
             student.setEmail("student1@example.com");
             student.setRole(User.Role.STUDENT);
             userRepository.save(student);
-            System.out.println("Created sample student: student1");
+            log.info("Created sample student: student1");
         }
         
         if (!userRepository.existsByUsername("unni")) {
@@ -43,7 +47,7 @@ public class DataLoader implements CommandLineRunner {
             unni.setEmail("unni@example.com");
             unni.setRole(User.Role.STUDENT);
             userRepository.save(unni);
-            System.out.println("Created sample student: unni");
+            log.info("Created sample student: unni");
         }
         
         if (!userRepository.existsByUsername("staff1")) {
@@ -54,7 +58,7 @@ public class DataLoader implements CommandLineRunner {
             staff.setEmail("staff1@example.com");
             staff.setRole(User.Role.STAFF);
             userRepository.save(staff);
-            System.out.println("Created sample staff: staff1");
+            log.info("Created sample staff: staff1");
         }
         
         if (!userRepository.existsByUsername("admin")) {
@@ -65,12 +69,12 @@ public class DataLoader implements CommandLineRunner {
             admin.setEmail("admin@example.com");
             admin.setRole(User.Role.STAFF);
             userRepository.save(admin);
-            System.out.println("Created admin user: admin");
+            log.info("Created admin user: admin");
         }
         
         // Create sample certificates if none exist
         if (certificateRepository.count() == 0) {
-            System.out.println("Creating sample certificates...");
+            log.info("Creating sample certificates...");
             
             // Note: These are placeholder certificates without actual files
             // In a real application, you would upload actual certificate files
@@ -98,14 +102,14 @@ public class DataLoader implements CommandLineRunner {
             // Note: fileId is null - this will cause the 404 error we're seeing
             certificateRepository.save(cert2);
             
-            System.out.println("Created sample certificates (without files)");
-            System.out.println("Note: Certificate files are not available - upload real certificates to view them");
+            log.info("Created sample certificates (without files)");
+            log.info("Note: Certificate files are not available - upload real certificates to view them");
         }
         
-        System.out.println("Data initialization completed");
-        System.out.println("Data seeding completed. Test users available:");
-        System.out.println("Student: student1 / password123");
-        System.out.println("Student: unni / password123");
-        System.out.println("Staff: staff1 / password123");
+        log.info("Data initialization completed");
+        log.info("Data seeding completed. Test users available:");
+        log.info("Student: student1 / password123");
+        log.info("Student: unni / password123");
+        log.info("Staff: staff1 / password123");
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.certify.config;
 
 import com.certify.model.User;
 import com.certify.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -9,6 +11,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataSeeder implements CommandLineRunner {
     
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     
@@ -28,7 +32,7 @@ public class DataSeeder implements CommandLineRunner {
             student.setEmail("student1@example.com");
             student.setRole(User.Role.STUDENT);
             userRepository.save(student);
-            System.out.println("Created test student: student1 / password123");
+            log.info("Created test student: student1 / password123");
         }
         
         // Create test staff if doesn't exist
@@ -40,11 +44,11 @@ public class DataSeeder implements CommandLineRunner {
             staff.setEmail("staff1@example.com");
             staff.setRole(User.Role.STAFF);
             userRepository.save(staff);
-            System.out.println("Created test staff: staff1 / password123");
+            log.info("Created test staff: staff1 / password123");
         }
         
-        System.out.println("Data seeding completed. Test users available:");
-        System.out.println("Student: student1 / password123");
-        System.out.println("Staff: staff1 / password123");
+        log.info("Data seeding completed. Test users available:");
+        log.info("Student: student1 / password123");
+        log.info("Staff: staff1 / password123");
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.certify.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.Part;
+import org.apache.catalina.core.ApplicationPart;
+import org.apache.tomcat.util.http.fileupload.FileItem;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.disk.DiskFileItemFactory;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Parses a multipart body of unknown length the way the container does, but
+// with its own size limit: the upload counts bytes as it reads and fails as
+// soon as the body passes `limit`. Parsing is lazy, on the first call for
+// parts or parameters, so nothing is read before the security filters run.
+// A body over the limit surfaces as Tomcat's SizeLimitExceededException,
+// which Spring turns into MaxUploadSizeExceededException (413).
+class LimitedMultipartRequest extends HttpServletRequestWrapper {
+    
+    private final long limit;
+    private final File location;
+    private final int fileSizeThreshold;
+    private List<Part> parts;
+    private Map<String, String[]> parameters;
+    private IllegalStateException failure;
+    
+    LimitedMultipartRequest(HttpServletRequest request, long limit, File location, int fileSizeThreshold) {
+        super(request);
+        this.limit = limit;
+        this.location = location;
+        this.fileSizeThreshold = fileSizeThreshold;
+    }
+    
+    @Override
+    public Collection<Part> getParts() {
+        parse();
+        return parts;
+    }
+    
+    @Override
+    public Part getPart(String name) {
+        parse();
+        return parts.stream().filter(part -> part.getName().equals(name)).findFirst().orElse(null);
+    }
+    
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterMap().get(name);
+        return values == null ? null : values[0];
+    }
+    
+    @Override
+    public String[] getParameterValues(String name) {
+        return getParameterMap().get(name);
+    }
+    
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+    
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        parse();
+        return parameters;
+    }
+    
+    // The query string comes from the container after the body has been read
+    // here; once its stream is in use, the container no longer parses the body
+    private void parse() {
+        if (failure != null) {
+            throw failure;
+        }
+        if (parts != null) {
+            return;
+        }
+        
+        String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+        FileUpload upload = new FileUpload();
+        upload.setFileItemFactory(new DiskFileItemFactory(fileSizeThreshold, location));
+        upload.setSizeMax(limit);
+        upload.setFileSizeMax(limit);
+        upload.setHeaderEncoding(encoding);
+        
+        List<Part> parsed = new ArrayList<>();
+        Map<String, List<String>> fields = new LinkedHashMap<>();
+        try {
+            for (FileItem item : upload.parseRequest(new ServletRequestContext(this))) {
+                parsed.add(new ApplicationPart(item, location));
+                if (item.isFormField()) {
+                    fields.computeIfAbsent(item.getFieldName(), name -> new ArrayList<>()).add(item.getString(encoding));
+                }
+            }
+        } catch (IOException e) {
+            failure = new IllegalStateException(e.getMessage(), e);
+            throw failure;
+        }
+        
+        Map<String, String[]> merged = new LinkedHashMap<>(super.getParameterMap());
+        fields.forEach((name, values) -> merged.merge(name, values.toArray(String[]::new), (query, form) -> {
+            String[] both = new String[query.length + form.length];
+            System.arraycopy(query, 0, both, 0, query.length);
+            System.arraycopy(form, 0, both, query.length, form.length);
+            return both;
+        }));
+        parts = parsed;
+        parameters = Collections.unmodifiableMap(merged);
+    }
+}
@@ -1,5 +1,11 @@
 package com.certify.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
@@ -9,9 +15,31 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
     
+    @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/certificate_db}")
+    private String uri;
+    
+    @Value("${spring.data.mongodb.database:certificate_db}")
+    private String database;
+    
+    private final MeterRegistry meterRegistry;
+    
+    public MongoConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
     @Override
     protected String getDatabaseName() {
-        return "certificate_db";
+        return database;
+    }
+    
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new ConnectionString(uri));
+        // This client bypasses Boot's auto-configuration, so the driver metrics are
+        // attached here: mongodb.driver.commands is tagged by command and collection
+        builder.addCommandListener(new MongoMetricsCommandListener(meterRegistry));
+        builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(
+            new MongoMetricsConnectionPoolListener(meterRegistry)));
     }
     
     @Bean
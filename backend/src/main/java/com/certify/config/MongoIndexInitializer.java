@@ -0,0 +1,44 @@
+package com.certify.config;
+
+import com.certify.model.Certificate;
+import com.certify.model.FileBlob;
+import com.certify.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+@Component
+public class MongoIndexInitializer {
+    
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+    
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Certificate.class, User.class, FileBlob.class);
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    // Creates the @Indexed/@CompoundIndex declarations before the data loaders
+    // run; ensureIndex is a no-op for indexes that already exist
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(indexOps::ensureIndex);
+            log.info("Ensured indexes for {}", mongoTemplate.getCollectionName(entity));
+        }
+    }
+}
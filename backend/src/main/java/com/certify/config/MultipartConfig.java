@@ -0,0 +1,25 @@
+package com.certify.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+// The container's multipart limits apply to the whole DispatcherServlet, so
+// they are raised to the bulk upload size here. UploadSizeFilter holds every
+// other path to spring.servlet.multipart.max-request-size, by Content-Length
+// or by counting a chunked body, so only the bulk endpoint can spool a large
+// archive.
+@Configuration
+public class MultipartConfig {
+    
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+                                                         @Value("${bulk.ingest.max-upload-size:200MB}") DataSize bulkMaxUploadSize) {
+        long ceiling = Math.max(bulkMaxUploadSize.toBytes(), properties.getMaxRequestSize().toBytes());
+        return new MultipartConfigElement(properties.getLocation() == null ? "" : properties.getLocation(),
+            ceiling, ceiling, (int) properties.getFileSizeThreshold().toBytes());
+    }
+}
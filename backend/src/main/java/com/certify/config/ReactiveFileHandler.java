@@ -0,0 +1,102 @@
+package com.certify.config;
+
+import com.certify.controller.CertificateFileHeaders;
+import com.certify.model.Certificate;
+import com.certify.service.CertificateService;
+import com.certify.service.ReactiveFileStorageService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Reactive twin of the view/download endpoints, mounted under /api/reactive
+// by ReactiveFileServingConfig. The servlet adapter writes with non-blocking
+// servlet I/O, so no thread is held while a client drains the file. Headers
+// and revalidation come from CertificateFileHeaders, as on the servlet
+// endpoints; Range is not supported here, so a ranged request gets the whole
+// file with a 200 and responses advertise Accept-Ranges: none.
+class ReactiveFileHandler implements HttpHandler {
+    
+    private static final Pattern FILE_PATH = Pattern.compile("/certificates/([^/]+)/(view|download)");
+    
+    private final CertificateService certificateService;
+    private final ReactiveFileStorageService reactiveFileStorageService;
+    private final ObjectMapper objectMapper;
+    
+    ReactiveFileHandler(CertificateService certificateService,
+                               ReactiveFileStorageService reactiveFileStorageService,
+                               ObjectMapper objectMapper) {
+        this.certificateService = certificateService;
+        this.reactiveFileStorageService = reactiveFileStorageService;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    public Mono<Void> handle(ServerHttpRequest request, ServerHttpResponse response) {
+        // Still on the container thread here, where the security filter left the context
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return writeError(response, HttpStatus.UNAUTHORIZED, "Authentication required");
+        }
+        
+        Matcher matcher = FILE_PATH.matcher(request.getPath().pathWithinApplication().value());
+        if (!matcher.matches()) {
+            return writeError(response, HttpStatus.NOT_FOUND, "Not found");
+        }
+        if (request.getMethod() != HttpMethod.GET) {
+            return writeError(response, HttpStatus.METHOD_NOT_ALLOWED, "Method not allowed");
+        }
+        boolean download = "download".equals(matcher.group(2));
+        
+        // Usually a certificate cache hit; the transfer is what holds threads
+        Certificate certificate = certificateService.findById(matcher.group(1)).orElse(null);
+        if (certificate == null) {
+            return writeError(response, HttpStatus.NOT_FOUND, "Certificate not found");
+        }
+        if (certificate.getFileId() == null || certificate.getFileId().trim().isEmpty()) {
+            return writeError(response, HttpStatus.NOT_FOUND, "File not found");
+        }
+        
+        if (CertificateFileHeaders.isNotModified(certificate, request.getHeaders())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().putAll(CertificateFileHeaders.validators(certificate));
+            return response.setComplete();
+        }
+        
+        return reactiveFileStorageService.findFile(certificate.getFileId())
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(file -> {
+                if (file.isEmpty()) {
+                    return writeError(response, HttpStatus.NOT_FOUND, "File not accessible");
+                }
+                HttpHeaders headers = response.getHeaders();
+                headers.putAll(CertificateFileHeaders.forFile(certificate, download, false));
+                headers.setContentLength(file.get().getLength());
+                return response.writeWith(reactiveFileStorageService.download(file.get()));
+            });
+    }
+    
+    private Mono<Void> writeError(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("error", message));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+    }
+}
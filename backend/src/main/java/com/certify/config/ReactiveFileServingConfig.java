@@ -0,0 +1,68 @@
+package com.certify.config;
+
+import com.certify.service.CertificateService;
+import com.certify.service.ReactiveFileStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+
+// Spring MVC would buffer a Flux<DataBuffer> body into a list, so the
+// reactive file endpoints get their own servlet: ServletHttpHandlerAdapter
+// bridges the reactive handler onto async, non-blocking servlet I/O with
+// backpressure. The security filter chain still runs in front of it.
+// Boot's reactive Mongo auto-configuration is excluded, so the reactive
+// driver only opens a connection pool when these endpoints are switched on.
+@Configuration
+@ConditionalOnProperty(name = "storage.reactive.enabled", havingValue = "true")
+public class ReactiveFileServingConfig {
+    
+    @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/certificate_db}")
+    private String uri;
+    
+    @Value("${spring.data.mongodb.database:certificate_db}")
+    private String database;
+    
+    @Bean
+    public MongoClient reactiveMongoClient(MeterRegistry meterRegistry) {
+        return MongoClients.create(MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(uri))
+            .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+            .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(
+                new MongoMetricsConnectionPoolListener(meterRegistry)))
+            .build());
+    }
+    
+    @Bean
+    public ReactiveGridFsTemplate reactiveGridFsTemplate(MongoClient reactiveMongoClient, MongoTemplate mongoTemplate) {
+        return new ReactiveGridFsTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, database),
+            mongoTemplate.getConverter());
+    }
+    
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveFileServlet(
+            CertificateService certificateService,
+            ReactiveFileStorageService reactiveFileStorageService,
+            ObjectMapper objectMapper) {
+        ReactiveFileHandler handler = new ReactiveFileHandler(certificateService, reactiveFileStorageService, objectMapper);
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+            new ServletRegistrationBean<>(new ServletHttpHandlerAdapter(handler), "/api/reactive/*");
+        registration.setName("reactiveFileServlet");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
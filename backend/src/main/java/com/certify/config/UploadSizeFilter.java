@@ -0,0 +1,76 @@
+package com.certify.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.File;
+import java.io.IOException;
+
+// Holds each multipart request to its path's limit. The bulk upload endpoint
+// may take bulk.ingest.max-upload-size; every other path keeps
+// spring.servlet.multipart.max-request-size. A declared Content-Length is
+// checked before anything reads the body. A chunked body on a small-limit
+// path is parsed by LimitedMultipartRequest, which counts the bytes and stops
+// at the small limit; the container's own parser would spool up to the bulk
+// limit before anyone could check.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class UploadSizeFilter extends OncePerRequestFilter {
+    
+    static final String BULK_UPLOAD_PATH = "/api/staff/certificates/bulk-upload";
+    
+    @Value("${spring.servlet.multipart.max-request-size:10MB}")
+    private DataSize maxRequestSize;
+    
+    @Value("${bulk.ingest.max-upload-size:200MB}")
+    private DataSize bulkMaxUploadSize;
+    
+    private final MultipartConfigElement multipartConfig;
+    
+    public UploadSizeFilter(MultipartConfigElement multipartConfig) {
+        this.multipartConfig = multipartConfig;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean bulk = request.getRequestURI().substring(request.getContextPath().length()).equals(BULK_UPLOAD_PATH);
+        long limit = bulk ? bulkMaxUploadSize.toBytes() : maxRequestSize.toBytes();
+        long length = request.getContentLengthLong();
+        
+        if (length > limit) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Upload exceeds maximum request size");
+        } else if (length < 0 && !bulk) {
+            File location = multipartConfig.getLocation().isEmpty()
+                ? (File) request.getServletContext().getAttribute(ServletContext.TEMPDIR)
+                : new File(multipartConfig.getLocation());
+            filterChain.doFilter(new LimitedMultipartRequest(request, limit, location,
+                multipartConfig.getFileSizeThreshold()), response);
+        } else {
+            filterChain.doFilter(request, response);
+        }
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
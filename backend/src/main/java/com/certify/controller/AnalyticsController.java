@@ -1,6 +1,7 @@
 package com.certify.controller;
 
 import com.certify.service.CertificateService;
+import com.certify.service.CertificateStatsService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -11,9 +12,11 @@ import java.util.Map;
 public class AnalyticsController {
     
     private final CertificateService certificateService;
+    private final CertificateStatsService certificateStatsService;
     
-    public AnalyticsController(CertificateService certificateService) {
+    public AnalyticsController(CertificateService certificateService, CertificateStatsService certificateStatsService) {
         this.certificateService = certificateService;
+        this.certificateStatsService = certificateStatsService;
     }
     
     @GetMapping("/student/dashboard")
@@ -27,4 +30,9 @@ public class AnalyticsController {
         Map<String, Object> analytics = certificateService.getStaffAnalytics();
         return ResponseEntity.ok(analytics);
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/staff/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileStats() {
+        return ResponseEntity.ok(certificateStatsService.reconcile());
+    }
+}
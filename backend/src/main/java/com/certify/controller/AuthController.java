@@ -1,5 +1,6 @@
 package com.certify.controller;
 
+import com.certify.exception.ServiceOverloadedException;
 import com.certify.model.User;
 import com.certify.service.AuthService;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,8 @@ public class AuthController {
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
             return ResponseEntity.ok(authService.register(user));
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -36,6 +39,8 @@ public class AuthController {
             user.setRole(User.Role.valueOf(userRequest.get("role")));
             
             return ResponseEntity.ok(authService.register(user));
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -48,6 +53,8 @@ public class AuthController {
                 credentials.get("username"), 
                 credentials.get("password")
             ));
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -0,0 +1,60 @@
+package com.certify.controller;
+
+import com.certify.model.Certificate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Response headers for a certificate's stored file, shared by the servlet
+// view/download endpoints and their reactive twins. Stored files never
+// change, so the content digest is a strong ETag and a response may be cached
+// for a year; a file stored before digests existed is sent without either.
+public final class CertificateFileHeaders {
+    
+    private static final CacheControl FILE_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    
+    private CertificateFileHeaders() {
+    }
+    
+    // True when If-None-Match already names this file, so a 304 can answer
+    // the request without touching storage
+    public static boolean isNotModified(Certificate certificate, HttpHeaders requestHeaders) {
+        String etag = etag(certificate);
+        return etag != null && requestHeaders.getIfNoneMatch().stream()
+            .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+    
+    // ETag and Cache-Control, sent with a 304 as well as with the file
+    public static HttpHeaders validators(Certificate certificate) {
+        HttpHeaders headers = new HttpHeaders();
+        String etag = etag(certificate);
+        if (etag != null) {
+            headers.setETag(etag);
+            headers.setCacheControl(FILE_CACHE_CONTROL);
+        }
+        return headers;
+    }
+    
+    // Every header of a full response except Content-Length. `ranges` says
+    // whether the endpoint answers Range requests: Spring MVC serves a
+    // Resource body in ranges, while the reactive endpoints stream GridFS
+    // chunks as they arrive and always send the whole file.
+    public static HttpHeaders forFile(Certificate certificate, boolean download, boolean ranges) {
+        HttpHeaders headers = validators(certificate);
+        String contentType = certificate.getFileType() != null && !certificate.getFileType().isEmpty() ?
+            certificate.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.setContentDisposition((download ? ContentDisposition.attachment() : ContentDisposition.inline())
+            .filename(certificate.getFileName() != null ? certificate.getFileName() : "certificate", StandardCharsets.UTF_8)
+            .build());
+        headers.set(HttpHeaders.ACCEPT_RANGES, ranges ? "bytes" : "none");
+        return headers;
+    }
+    
+    private static String etag(Certificate certificate) {
+        return certificate.getFileHash() == null ? null : "\"" + certificate.getFileHash() + "\"";
+    }
+}
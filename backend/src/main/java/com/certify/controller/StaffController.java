@@ -1,16 +1,29 @@
 package com.certify.controller;
 
+import com.certify.exception.CertificateConflictException;
 import com.certify.model.Certificate;
+import com.certify.model.CertificatePosition;
+import com.certify.model.CertificateProjection;
+import com.certify.service.BulkIngestService;
+import com.certify.service.CertificateSearchIndex;
 import com.certify.service.CertificateService;
+import com.certify.service.FileDeduplicationService;
 import com.certify.service.FileStorageService;
-import org.springframework.core.io.InputStreamResource;
+import com.certify.service.PasswordHashingService;
+import com.certify.service.QueryPlanVerifier;
+import com.certify.service.ReviewQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,27 +31,115 @@ import java.util.Map;
 @RequestMapping("/api/staff")
 public class StaffController {
     
+    private static final Logger log = LoggerFactory.getLogger(StaffController.class);
+    
     private final CertificateService certificateService;
     private final FileStorageService fileStorageService;
+    private final QueryPlanVerifier queryPlanVerifier;
+    private final CertificateSearchIndex certificateSearchIndex;
+    private final FileDeduplicationService fileDeduplicationService;
+    private final BulkIngestService bulkIngestService;
+    private final PasswordHashingService passwordHashingService;
+    private final ReviewQueueService reviewQueueService;
     
-    public StaffController(CertificateService certificateService, FileStorageService fileStorageService) {
+    public StaffController(CertificateService certificateService, FileStorageService fileStorageService,
+                           QueryPlanVerifier queryPlanVerifier, CertificateSearchIndex certificateSearchIndex,
+                           FileDeduplicationService fileDeduplicationService, BulkIngestService bulkIngestService,
+                           PasswordHashingService passwordHashingService, ReviewQueueService reviewQueueService) {
         this.certificateService = certificateService;
         this.fileStorageService = fileStorageService;
+        this.queryPlanVerifier = queryPlanVerifier;
+        this.certificateSearchIndex = certificateSearchIndex;
+        this.fileDeduplicationService = fileDeduplicationService;
+        this.bulkIngestService = bulkIngestService;
+        this.passwordHashingService = passwordHashingService;
+        this.reviewQueueService = reviewQueueService;
     }
     
     @GetMapping("/certificates")
-    public ResponseEntity<List<Certificate>> getAllCertificates() {
-        return ResponseEntity.ok(certificateService.getAllCertificates());
+    public ResponseEntity<List<? extends CertificatePosition>> getAllCertificates(
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.getAllCertificates(CertificateProjection.from(fields).getType()));
+    }
+    
+    @GetMapping("/certificates/page")
+    public ResponseEntity<Map<String, Object>> getCertificatePage(
+            @RequestParam(required = false) Certificate.Status status,
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.getCertificatePage(status, studentId, from, to, cursor, size,
+            CertificateProjection.from(fields).getType()));
+    }
+    
+    @PostMapping("/certificates/bulk-upload")
+    public ResponseEntity<?> bulkUpload(
+            @RequestParam("archive") MultipartFile archive,
+            @RequestParam("manifest") MultipartFile manifest) {
+        try {
+            return ResponseEntity.ok(bulkIngestService.ingest(archive, manifest));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
     @GetMapping("/certificates/search")
-    public ResponseEntity<List<Certificate>> searchCertificates(@RequestParam String studentName) {
-        return ResponseEntity.ok(certificateService.searchCertificates(studentName));
+    public ResponseEntity<List<? extends CertificatePosition>> searchCertificates(
+            @RequestParam String studentName,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.searchCertificates(studentName,
+            CertificateProjection.from(fields).getType()));
     }
     
     @GetMapping("/certificates/status/{status}")
-    public ResponseEntity<List<Certificate>> getCertificatesByStatus(@PathVariable Certificate.Status status) {
-        return ResponseEntity.ok(certificateService.getCertificatesByStatus(status));
+    public ResponseEntity<List<? extends CertificatePosition>> getCertificatesByStatus(
+            @PathVariable Certificate.Status status,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.getCertificatesByStatus(status,
+            CertificateProjection.from(fields).getType()));
+    }
+    
+    @PostMapping("/review-queue/lease")
+    public ResponseEntity<Map<String, Object>> leaseReviewWork(
+            @RequestParam(defaultValue = "10") int count,
+            Authentication authentication) {
+        return ResponseEntity.ok(reviewQueueService.lease(authentication.getName(), count));
+    }
+    
+    @DeleteMapping("/review-queue/lease/{id}")
+    public ResponseEntity<Map<String, Object>> releaseReviewWork(
+            @PathVariable String id,
+            Authentication authentication) {
+        reviewQueueService.release(id, authentication.getName());
+        return ResponseEntity.ok(Map.of("released", id));
+    }
+    
+    @GetMapping("/certificates/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        return ResponseEntity.ok(certificateSearchIndex.getStats());
+    }
+    
+    @GetMapping("/storage/stats")
+    public ResponseEntity<Map<String, Object>> getStorageStats() {
+        return ResponseEntity.ok(fileStorageService.getStorageStats());
+    }
+    
+    @PostMapping("/storage/deduplicate")
+    public ResponseEntity<Map<String, Object>> deduplicateStorage() {
+        return ResponseEntity.ok(fileDeduplicationService.migrate());
+    }
+    
+    @GetMapping("/auth/hashing/stats")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+    
+    @GetMapping("/query-plans")
+    public ResponseEntity<Map<String, Object>> getQueryPlans() {
+        return ResponseEntity.ok(queryPlanVerifier.verify());
     }
     
     @PutMapping("/certificates/{id}/verify")
@@ -51,6 +152,8 @@ public class StaffController {
                 id, authentication.getName(), request.get("remarks")
             );
             return ResponseEntity.ok(certificate);
+        } catch (CertificateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -66,6 +169,24 @@ public class StaffController {
                 id, authentication.getName(), request.get("remarks")
             );
             return ResponseEntity.ok(certificate);
+        } catch (CertificateConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    public record DecisionRequest(List<String> ids, Certificate.Status decision, String remarks) {}
+    
+    @PostMapping("/certificates/decisions")
+    public ResponseEntity<?> decideCertificates(
+            @RequestBody DecisionRequest request,
+            Authentication authentication) {
+        try {
+            Map<String, Object> result = certificateService.decideCertificates(
+                request.ids(), request.decision(), authentication.getName(), request.remarks()
+            );
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -74,67 +195,49 @@ public class StaffController {
     @GetMapping("/certificates/{id}/view")
     public ResponseEntity<?> viewCertificate(
             @PathVariable String id,
-            @RequestParam(required = false) String token) {
+            @RequestParam(required = false) String token,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            System.out.println("StaffController: Viewing certificate " + id);
-            
-            // Get all certificates and log them for debugging
-            List<Certificate> allCertificates = certificateService.getAllCertificates();
-            System.out.println("StaffController: Found " + allCertificates.size() + " total certificates");
-            
-            Certificate certificate = allCertificates.stream()
-                .filter(c -> c.getCertificateId().equals(id))
-                .findFirst()
-                .orElse(null);
+            Certificate certificate = certificateService.findById(id).orElse(null);
             
             if (certificate == null) {
-                System.err.println("Certificate not found with ID: " + id);
+                log.debug("View: certificate not found: certificateId={}", id);
                 return ResponseEntity.status(404).body(Map.of(
                     "error", "Certificate not found",
-                    "certificateId", id,
-                    "availableIds", allCertificates.stream().map(Certificate::getCertificateId).toList()
+                    "certificateId", id
                 ));
             }
             
-            System.out.println("StaffController: Found certificate: " + certificate.getCertificateName() + 
-                             ", FileId: " + certificate.getFileId() + 
-                             ", FileType: " + certificate.getFileType() +
-                             ", FileName: " + certificate.getFileName());
+            log.debug("View: certificateId={} fileId={} fileType={}", id, certificate.getFileId(), certificate.getFileType());
             
             if (certificate.getFileId() == null || certificate.getFileId().isEmpty()) {
-                System.err.println("Certificate has no file ID: " + certificate.getCertificateId());
                 return ResponseEntity.status(404).body(Map.of(
                     "error", "Certificate file not found",
                     "certificateId", id
                 ));
             }
             
-            InputStream fileStream = fileStorageService.getFile(certificate.getFileId());
-            if (fileStream == null) {
-                System.err.println("File not found for fileId: " + certificate.getFileId());
+            // Answer revalidation from the stored digest without touching GridFS
+            if (CertificateFileHeaders.isNotModified(certificate, requestHeaders)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(CertificateFileHeaders.validators(certificate))
+                    .build();
+            }
+            
+            Resource resource = fileStorageService.getFileResource(certificate.getFileId());
+            if (resource == null) {
+                log.warn("View: file missing from storage: certificateId={} fileId={}", id, certificate.getFileId());
                 return ResponseEntity.status(404).body(Map.of(
                     "error", "File not found in storage",
                     "fileId", certificate.getFileId()
                 ));
             }
             
-            InputStreamResource resource = new InputStreamResource(fileStream);
-            
-            // Determine content type - handle null/empty file types
-            String contentType = certificate.getFileType();
-            if (contentType == null || contentType.isEmpty()) {
-                contentType = "application/octet-stream";
-            }
-            
-            System.out.println("StaffController: Returning file with content type: " + contentType);
-            
             return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + certificate.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
+                .headers(CertificateFileHeaders.forFile(certificate, false, true))
                 .body(resource);
         } catch (Exception e) {
-            System.err.println("Error viewing certificate " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("View failed: certificateId={}", id, e);
             return ResponseEntity.status(500).body(Map.of(
                 "error", "Internal server error: " + e.getMessage(),
                 "certificateId", id
@@ -143,33 +246,41 @@ public class StaffController {
     }
     
     @GetMapping("/certificates/{id}/download")
-    public ResponseEntity<InputStreamResource> downloadCertificate(
+    public ResponseEntity<?> downloadCertificate(
             @PathVariable String id,
-            @RequestParam(required = false) String token) {
+            @RequestParam(required = false) String token,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            System.out.println("StaffController: Downloading certificate " + id);
+            log.debug("Download: certificateId={}", id);
             
-            Certificate certificate = certificateService.getAllCertificates().stream()
-                .filter(c -> c.getCertificateId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Certificate not found"));
+            Certificate certificate = certificateService.findById(id).orElse(null);
+            if (certificate == null) {
+                log.debug("Download: certificate not found: certificateId={}", id);
+                return ResponseEntity.status(404).body(Map.of("error", "Certificate not found"));
+            }
+            if (certificate.getFileId() == null || certificate.getFileId().trim().isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "File not found"));
+            }
             
-            InputStream fileStream = fileStorageService.getFile(certificate.getFileId());
-            InputStreamResource resource = new InputStreamResource(fileStream);
+            // Answer revalidation from the stored digest without touching GridFS
+            if (CertificateFileHeaders.isNotModified(certificate, requestHeaders)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(CertificateFileHeaders.validators(certificate))
+                    .build();
+            }
             
-            String contentType = certificate.getFileType();
-            if (contentType == null || contentType.isEmpty()) {
-                contentType = "application/octet-stream";
+            Resource resource = fileStorageService.getFileResource(certificate.getFileId());
+            if (resource == null) {
+                log.warn("Download: file missing from storage: certificateId={} fileId={}", id, certificate.getFileId());
+                return ResponseEntity.status(404).body(Map.of("error", "File not accessible"));
             }
             
             return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + certificate.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
+                .headers(CertificateFileHeaders.forFile(certificate, true, true))
                 .body(resource);
         } catch (Exception e) {
-            System.err.println("Error downloading certificate " + id + ": " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.notFound().build();
+            log.error("Download failed: certificateId={}", id, e);
+            return ResponseEntity.status(500).body(Map.of("error", "Internal server error: " + e.getMessage()));
         }
     }
 }
@@ -1,18 +1,23 @@
 package com.certify.controller;
 
 import com.certify.model.Certificate;
+import com.certify.model.CertificatePosition;
+import com.certify.model.CertificateProjection;
 import com.certify.model.CertificateMetadata;
 import com.certify.service.CertificateService;
 import com.certify.service.FileStorageService;
-import org.springframework.core.io.InputStreamResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +25,8 @@ import java.util.Map;
 @RequestMapping("/api/student")
 public class StudentController {
     
+    private static final Logger log = LoggerFactory.getLogger(StudentController.class);
+    
     private final CertificateService certificateService;
     private final FileStorageService fileStorageService;
     
@@ -29,9 +36,23 @@ public class StudentController {
     }
     
     @GetMapping("/certificates")
-    public ResponseEntity<List<Certificate>> getAllCertificates() {
+    public ResponseEntity<List<? extends CertificatePosition>> getAllCertificates(
+            @RequestParam(required = false) String fields) {
         // Students can now view all certificates, just like staff
-        return ResponseEntity.ok(certificateService.getAllCertificates());
+        return ResponseEntity.ok(certificateService.getAllCertificates(CertificateProjection.from(fields).getType()));
+    }
+    
+    @GetMapping("/certificates/page")
+    public ResponseEntity<Map<String, Object>> getCertificatePage(
+            @RequestParam(required = false) Certificate.Status status,
+            @RequestParam(required = false) String studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.getCertificatePage(status, studentId, from, to, cursor, size,
+            CertificateProjection.from(fields).getType()));
     }
     
     @GetMapping("/test")
@@ -46,7 +67,7 @@ public class StudentController {
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         try {
-            int certificateCount = certificateService.getAllCertificates().size();
+            long certificateCount = certificateService.countCertificates();
             return ResponseEntity.ok(Map.of(
                 "status", "healthy",
                 "certificateCount", certificateCount,
@@ -62,19 +83,28 @@ public class StudentController {
     }
     
     @GetMapping("/certificates/search")
-    public ResponseEntity<List<Certificate>> searchCertificates(@RequestParam String studentName) {
-        return ResponseEntity.ok(certificateService.searchCertificates(studentName));
+    public ResponseEntity<List<? extends CertificatePosition>> searchCertificates(
+            @RequestParam String studentName,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.searchCertificates(studentName,
+            CertificateProjection.from(fields).getType()));
     }
     
     @GetMapping("/certificates/status/{status}")
-    public ResponseEntity<List<Certificate>> getCertificatesByStatus(@PathVariable Certificate.Status status) {
-        return ResponseEntity.ok(certificateService.getCertificatesByStatus(status));
+    public ResponseEntity<List<? extends CertificatePosition>> getCertificatesByStatus(
+            @PathVariable Certificate.Status status,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(certificateService.getCertificatesByStatus(status,
+            CertificateProjection.from(fields).getType()));
     }
     
     @GetMapping("/certificates/my")
-    public ResponseEntity<List<Certificate>> getMyOwnCertificates(Authentication authentication) {
+    public ResponseEntity<List<? extends CertificatePosition>> getMyOwnCertificates(
+            @RequestParam(required = false) String fields,
+            Authentication authentication) {
         // Endpoint to get only the student's own certificates if needed
-        return ResponseEntity.ok(certificateService.getStudentCertificates(authentication.getName()));
+        return ResponseEntity.ok(certificateService.getStudentCertificates(authentication.getName(),
+            CertificateProjection.from(fields).getType()));
     }
     
     @PostMapping("/certificates/upload")
@@ -87,130 +117,114 @@ public class StudentController {
             @RequestParam(value = "department", required = false) String department,
             Authentication authentication) {
         try {
-            System.out.println("StudentController: Upload request received");
-            System.out.println("StudentController: File name: " + file.getOriginalFilename());
-            System.out.println("StudentController: File size: " + file.getSize());
-            System.out.println("StudentController: Certificate name: " + certificateName);
-            System.out.println("StudentController: Certificate type: " + certificateType);
-            System.out.println("StudentController: Issuing organization: " + issuingOrganization);
-            System.out.println("StudentController: User: " + authentication.getName());
-            
-            Certificate certificate = certificateService.uploadCertificate(
-                authentication.getName(), certificateName, file
-            );
+            log.debug("Upload received: user={} file={} size={} certificateName={} certificateType={} issuingOrganization={}",
+                authentication.getName(), file.getOriginalFilename(), file.getSize(), certificateName,
+                certificateType, issuingOrganization);
             
-            // Set additional metadata if provided
+            CertificateMetadata metadata = null;
             if (certificateType != null || issuingOrganization != null || issueYear != null || department != null) {
-                CertificateMetadata metadata = new CertificateMetadata();
+                metadata = new CertificateMetadata();
                 metadata.setCertificateType(certificateType);
                 metadata.setIssuingOrganization(issuingOrganization);
                 metadata.setIssueYear(issueYear);
                 metadata.setDepartment(department);
-                certificate.setMetadata(metadata);
-                
-                // Save the certificate again with metadata
-                certificate = certificateService.saveCertificate(certificate);
             }
             
-            System.out.println("StudentController: Upload successful, certificate ID: " + certificate.getCertificateId());
+            Certificate certificate = certificateService.uploadCertificate(
+                authentication.getName(), certificateName, metadata, file
+            );
+            
+            log.info("Certificate uploaded: certificateId={} user={} size={}",
+                certificate.getCertificateId(), authentication.getName(), file.getSize());
             return ResponseEntity.ok(certificate);
         } catch (Exception e) {
-            System.err.println("StudentController: Upload failed: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Upload rejected for user={}: {}", authentication.getName(), e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
     
     @GetMapping("/certificates/{id}/view")
-    public ResponseEntity<?> viewCertificate(@PathVariable String id, Authentication authentication) {
-        System.out.println("StudentController: viewCertificate called with ID: " + id);
-        
+    public ResponseEntity<?> viewCertificate(@PathVariable String id, Authentication authentication, @RequestHeader HttpHeaders requestHeaders) {
         try {
             if (id == null || id.trim().isEmpty()) {
-                System.out.println("StudentController: Empty certificate ID provided");
                 return ResponseEntity.badRequest().body(Map.of("error", "Certificate ID is required"));
             }
             
-            List<Certificate> allCertificates = certificateService.getAllCertificates();
-            System.out.println("StudentController: Total certificates: " + allCertificates.size());
-            
-            // Log all certificate IDs for debugging
-            allCertificates.forEach(cert -> 
-                System.out.println("StudentController: Available certificate ID: " + cert.getCertificateId())
-            );
-            
-            Certificate certificate = allCertificates.stream()
-                .filter(c -> id.equals(c.getCertificateId()))
-                .findFirst()
-                .orElse(null);
+            Certificate certificate = certificateService.findById(id).orElse(null);
             
             if (certificate == null) {
-                System.out.println("StudentController: Certificate not found: " + id);
+                log.debug("View: certificate not found: certificateId={}", id);
                 return ResponseEntity.status(404).body(Map.of("error", "Certificate not found"));
             }
             
-            System.out.println("StudentController: Found certificate: " + certificate.getCertificateName());
-            System.out.println("StudentController: Certificate file ID: " + certificate.getFileId());
+            log.debug("View: certificateId={} fileId={} user={}", id, certificate.getFileId(), authentication.getName());
             
             if (certificate.getFileId() == null || certificate.getFileId().trim().isEmpty()) {
-                System.out.println("StudentController: No file ID for certificate: " + id);
                 return ResponseEntity.status(404).body(Map.of(
                     "error", "File not found", 
                     "message", "This certificate does not have an associated file. It may be a sample certificate."
                 ));
             }
             
-            InputStream fileStream = fileStorageService.getFile(certificate.getFileId());
-            if (fileStream == null) {
-                System.out.println("StudentController: File stream is null for: " + certificate.getFileId());
-                return ResponseEntity.status(404).body(Map.of("error", "File not accessible"));
+            // Answer revalidation from the stored digest without touching GridFS
+            if (CertificateFileHeaders.isNotModified(certificate, requestHeaders)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(CertificateFileHeaders.validators(certificate))
+                    .build();
             }
             
-            InputStreamResource resource = new InputStreamResource(fileStream);
-            String contentType = certificate.getFileType() != null ? certificate.getFileType() : "application/octet-stream";
-            
-            System.out.println("StudentController: Returning file with content type: " + contentType);
+            Resource resource = fileStorageService.getFileResource(certificate.getFileId());
+            if (resource == null) {
+                log.warn("View: file missing from storage: certificateId={} fileId={}", id, certificate.getFileId());
+                return ResponseEntity.status(404).body(Map.of("error", "File not accessible"));
+            }
             
             return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + certificate.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
+                .headers(CertificateFileHeaders.forFile(certificate, false, true))
                 .body(resource);
                 
         } catch (Exception e) {
-            System.err.println("StudentController: Error in viewCertificate: " + e.getMessage());
-            e.printStackTrace();
+            log.error("View failed: certificateId={}", id, e);
             return ResponseEntity.status(500).body(Map.of("error", "Server error: " + e.getMessage()));
         }
     }
     
     @GetMapping("/certificates/{id}/download")
-    public ResponseEntity<InputStreamResource> downloadCertificate(
+    public ResponseEntity<?> downloadCertificate(
             @PathVariable String id,
-            Authentication authentication) {
+            Authentication authentication,
+            @RequestHeader HttpHeaders requestHeaders) {
         try {
-            System.out.println("StudentController: Downloading certificate " + id + " for student " + authentication.getName());
+            log.debug("Download: certificateId={} user={}", id, authentication.getName());
             
-            Certificate certificate = certificateService.getAllCertificates().stream()
-                .filter(c -> c.getCertificateId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Certificate not found"));
+            Certificate certificate = certificateService.findById(id).orElse(null);
+            if (certificate == null) {
+                log.debug("Download: certificate not found: certificateId={}", id);
+                return ResponseEntity.status(404).body(Map.of("error", "Certificate not found"));
+            }
+            if (certificate.getFileId() == null || certificate.getFileId().trim().isEmpty()) {
+                return ResponseEntity.status(404).body(Map.of("error", "File not found"));
+            }
             
-            InputStream fileStream = fileStorageService.getFile(certificate.getFileId());
-            InputStreamResource resource = new InputStreamResource(fileStream);
+            // Answer revalidation from the stored digest without touching GridFS
+            if (CertificateFileHeaders.isNotModified(certificate, requestHeaders)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(CertificateFileHeaders.validators(certificate))
+                    .build();
+            }
             
-            String contentType = certificate.getFileType();
-            if (contentType == null || contentType.isEmpty()) {
-                contentType = "application/octet-stream";
+            Resource resource = fileStorageService.getFileResource(certificate.getFileId());
+            if (resource == null) {
+                log.warn("Download: file missing from storage: certificateId={} fileId={}", id, certificate.getFileId());
+                return ResponseEntity.status(404).body(Map.of("error", "File not accessible"));
             }
             
             return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + certificate.getFileName() + "\"")
-                .contentType(MediaType.parseMediaType(contentType))
+                .headers(CertificateFileHeaders.forFile(certificate, true, true))
                 .body(resource);
         } catch (Exception e) {
-            System.err.println("StudentController: Error downloading certificate " + id + " for student " + authentication.getName() + ": " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.notFound().build();
+            log.error("Download failed: certificateId={}", id, e);
+            return ResponseEntity.status(500).body(Map.of("error", "Server error: " + e.getMessage()));
         }
     }
     
@@ -0,0 +1,11 @@
+package com.certify.exception;
+
+// A certificate changed underneath the caller, e.g. another reviewer decided it first
+public class CertificateConflictException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public CertificateConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,53 @@
+package com.certify.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps DEBUG and TRACE output at maxPerSecond events per logger, so turning
+// on debug logging for a hot path under load yields a sample of requests
+// rather than one line per request. Events over the budget are dropped
+// before a log event is even built. Other levels pass through untouched.
+public class DebugRateLimitFilter extends TurboFilter {
+    
+    private int maxPerSecond = 20;
+    
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Effective level rather than isEnabledFor, which would re-enter the turbo filters
+        if (level == null || level.isGreaterOrEqual(Level.INFO) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        return window.tryAcquire(maxPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+    
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+    
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+    
+    private static class Window {
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+        
+        boolean tryAcquire(int limit) {
+            long now = System.currentTimeMillis() / 1000;
+            long current = second.get();
+            if (now != current && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
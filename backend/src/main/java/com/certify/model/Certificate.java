@@ -1,11 +1,20 @@
 package com.certify.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Document(collection = "certificates")
-public class Certificate {
+@CompoundIndexes({
+    @CompoundIndex(name = "upload_date_id", def = "{'uploadDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "student_upload_date_id", def = "{'studentId': 1, 'uploadDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_upload_date_id", def = "{'status': 1, 'uploadDate': -1, '_id': -1}"),
+    @CompoundIndex(name = "status_upload_date_lease_expiry", def = "{'status': 1, 'uploadDate': 1, 'leaseExpiry': 1}")
+})
+public class Certificate implements CertificatePosition {
     @Id
     private String certificateId;
     
@@ -13,15 +22,24 @@ public class Certificate {
     private String studentName;
     private String certificateName;
     private String fileUrl;
+    @Indexed
     private String fileId;
     private String fileName;
     private String fileType;
+    private String fileHash;
+    private Long fileSize;
     private LocalDateTime uploadDate;
     private Status status;
     private String staffRemarks;
     private String verifiedBy;
     private LocalDateTime verifiedDate;
+    // Set by a bulk decision so the call can tell which certificates it decided itself
+    private String decisionId;
     private CertificateMetadata metadata;
+    // Review queue lease on a pending certificate; unset once it is decided or released
+    @Indexed(sparse = true)
+    private String leasedBy;
+    private LocalDateTime leaseExpiry;
     
     public enum Status {
         PENDING, VERIFIED, REJECTED
@@ -52,6 +70,12 @@ public class Certificate {
     public String getFileType() { return fileType; }
     public void setFileType(String fileType) { this.fileType = fileType; }
     
+    public String getFileHash() { return fileHash; }
+    public void setFileHash(String fileHash) { this.fileHash = fileHash; }
+    
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    
     public LocalDateTime getUploadDate() { return uploadDate; }
     public void setUploadDate(LocalDateTime uploadDate) { this.uploadDate = uploadDate; }
     
@@ -67,6 +91,15 @@ public class Certificate {
     public LocalDateTime getVerifiedDate() { return verifiedDate; }
     public void setVerifiedDate(LocalDateTime verifiedDate) { this.verifiedDate = verifiedDate; }
     
+    public String getDecisionId() { return decisionId; }
+    public void setDecisionId(String decisionId) { this.decisionId = decisionId; }
+    
     public CertificateMetadata getMetadata() { return metadata; }
     public void setMetadata(CertificateMetadata metadata) { this.metadata = metadata; }
+    
+    public String getLeasedBy() { return leasedBy; }
+    public void setLeasedBy(String leasedBy) { this.leasedBy = leasedBy; }
+    
+    public LocalDateTime getLeaseExpiry() { return leaseExpiry; }
+    public void setLeaseExpiry(LocalDateTime leaseExpiry) { this.leaseExpiry = leaseExpiry; }
 }
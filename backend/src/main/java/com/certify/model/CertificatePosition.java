@@ -0,0 +1,10 @@
+package com.certify.model;
+
+import java.time.LocalDateTime;
+
+// Where a certificate sits in upload order. Implemented by the full document
+// and by its projections, so keyset cursors work whichever shape was read.
+public interface CertificatePosition {
+    String getCertificateId();
+    LocalDateTime getUploadDate();
+}
@@ -0,0 +1,30 @@
+package com.certify.model;
+
+// Shape of the certificates a list endpoint returns, selected with ?fields=.
+// FULL is the default so existing clients keep the complete document.
+public enum CertificateProjection {
+    FULL(Certificate.class),
+    SUMMARY(CertificateSummary.class);
+    
+    private final Class<? extends CertificatePosition> type;
+    
+    CertificateProjection(Class<? extends CertificatePosition> type) {
+        this.type = type;
+    }
+    
+    public Class<? extends CertificatePosition> getType() {
+        return type;
+    }
+    
+    public static CertificateProjection from(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return FULL;
+        }
+        for (CertificateProjection projection : values()) {
+            if (projection.name().equalsIgnoreCase(fields.trim())) {
+                return projection;
+            }
+        }
+        throw new RuntimeException("Unknown fields selector: " + fields + " (expected full or summary)");
+    }
+}
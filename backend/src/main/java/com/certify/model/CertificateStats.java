@@ -0,0 +1,45 @@
+package com.certify.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Document(collection = "certificate_stats")
+public class CertificateStats {
+    public static final String GLOBAL_ID = "global";
+    
+    @Id
+    private String id;
+    
+    private String studentId;
+    private long total;
+    private Map<Certificate.Status, Long> counts = new EnumMap<>(Certificate.Status.class);
+    // Bumped by every counter write, so reconcile only replaces counts nobody changed meanwhile
+    private long version;
+    
+    public static String studentStatsId(String studentId) {
+        return "student:" + studentId;
+    }
+    
+    public long getCount(Certificate.Status status) {
+        Long count = counts.get(status);
+        return count == null ? 0L : count;
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+    
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    
+    public Map<Certificate.Status, Long> getCounts() { return counts; }
+    public void setCounts(Map<Certificate.Status, Long> counts) { this.counts = counts; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
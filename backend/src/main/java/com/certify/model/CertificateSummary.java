@@ -0,0 +1,49 @@
+package com.certify.model;
+
+import org.springframework.data.annotation.Id;
+import java.time.LocalDateTime;
+
+// The columns list views show for a certificate. Repository queries that
+// return this type project only these fields, so remarks, metadata and the
+// verification fields are neither read from Mongo nor serialized.
+public class CertificateSummary implements CertificatePosition {
+    @Id
+    private String certificateId;
+    
+    private String studentId;
+    private String studentName;
+    private String certificateName;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private LocalDateTime uploadDate;
+    private Certificate.Status status;
+    
+    // Getters and Setters
+    public String getCertificateId() { return certificateId; }
+    public void setCertificateId(String certificateId) { this.certificateId = certificateId; }
+    
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+    
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+    
+    public String getCertificateName() { return certificateName; }
+    public void setCertificateName(String certificateName) { this.certificateName = certificateName; }
+    
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public String getFileType() { return fileType; }
+    public void setFileType(String fileType) { this.fileType = fileType; }
+    
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    
+    public LocalDateTime getUploadDate() { return uploadDate; }
+    public void setUploadDate(LocalDateTime uploadDate) { this.uploadDate = uploadDate; }
+    
+    public Certificate.Status getStatus() { return status; }
+    public void setStatus(Certificate.Status status) { this.status = status; }
+}
@@ -0,0 +1,37 @@
+package com.certify.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+// One stored GridFS file per distinct content, keyed by its SHA-256 digest and
+// shared by every certificate that uploaded the same bytes
+@Document(collection = "file_blobs")
+public class FileBlob {
+    @Id
+    private String sha256;
+    
+    @Indexed(unique = true)
+    private String fileId;
+    
+    private long length;
+    private long refCount;
+    private LocalDateTime createdDate;
+    
+    // Getters and Setters
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+    
+    public String getFileId() { return fileId; }
+    public void setFileId(String fileId) { this.fileId = fileId; }
+    
+    public long getLength() { return length; }
+    public void setLength(long length) { this.length = length; }
+    
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+    
+    public LocalDateTime getCreatedDate() { return createdDate; }
+    public void setCreatedDate(LocalDateTime createdDate) { this.createdDate = createdDate; }
+}
@@ -0,0 +1,24 @@
+package com.certify.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+// One certificate write that will change the counters but has not recorded
+// its counts yet. Reconcile does not recount while any of these is live.
+@Document(collection = "pending_stats_writes")
+public class PendingStatsWrite {
+    @Id
+    private String id;
+    
+    @Indexed
+    private LocalDateTime startedAt;
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+}
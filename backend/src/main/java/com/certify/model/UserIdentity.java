@@ -0,0 +1,30 @@
+package com.certify.model;
+
+// The parts of a user the service layer needs to act on a JWT subject.
+// Deliberately excludes the password hash and e-mail, so it is safe to keep
+// in memory.
+public class UserIdentity {
+    private final String id;
+    private final String username;
+    private final String fullName;
+    private final User.Role role;
+    
+    public UserIdentity(String id, String username, String fullName, User.Role role) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.role = role;
+    }
+    
+    public static UserIdentity of(User user) {
+        return new UserIdentity(user.getId(), user.getUsername(), user.getFullName(), user.getRole());
+    }
+    
+    public String getId() { return id; }
+    
+    public String getUsername() { return username; }
+    
+    public String getFullName() { return fullName; }
+    
+    public User.Role getRole() { return role; }
+}
@@ -0,0 +1,29 @@
+package com.certify.repository;
+
+import com.certify.model.Certificate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class CertificateAggregate {
+    private final long total;
+    private final Map<Certificate.Status, Long> statusCounts;
+    private final List<Certificate> recent;
+    
+    public CertificateAggregate(long total, Map<Certificate.Status, Long> statusCounts, List<Certificate> recent) {
+        this.total = total;
+        this.statusCounts = new EnumMap<>(Certificate.Status.class);
+        this.statusCounts.putAll(statusCounts);
+        this.recent = recent;
+    }
+    
+    public long getCount(Certificate.Status status) {
+        return statusCounts.getOrDefault(status, 0L);
+    }
+    
+    public long getTotal() { return total; }
+    
+    public Map<Certificate.Status, Long> getStatusCounts() { return statusCounts; }
+    
+    public List<Certificate> getRecent() { return recent; }
+}
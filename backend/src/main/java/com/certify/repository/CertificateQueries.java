@@ -0,0 +1,124 @@
+package com.certify.repository;
+
+import com.certify.model.Certificate;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Every filtered query CertificateRepository runs, in one place, so that
+// QueryPlanVerifier explains exactly what the repository sends
+public final class CertificateQueries {
+    
+    private CertificateQueries() {
+    }
+    
+    public static Query byStudent(String studentId) {
+        return new Query(Criteria.where("studentId").is(studentId));
+    }
+    
+    public static Query byStatus(Certificate.Status status) {
+        return new Query(Criteria.where("status").is(status));
+    }
+    
+    public static Query byIds(Collection<String> certificateIds) {
+        return new Query(Criteria.where("_id").in(certificateIds));
+    }
+    
+    // Newest uploads first; a null studentId covers every certificate
+    public static Query recent(String studentId, int limit) {
+        Query query = studentId == null ? new Query() : byStudent(studentId);
+        return query.with(Sort.by(Sort.Direction.DESC, "uploadDate")).limit(limit);
+    }
+    
+    // Keyset page ordered by (uploadDate desc, certificateId desc)
+    public static Query page(Certificate.Status status, String studentId, LocalDateTime from, LocalDateTime to,
+                             LocalDateTime afterUploadDate, String afterCertificateId, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (status != null) {
+            filters.add(Criteria.where("status").is(status));
+        }
+        if (studentId != null) {
+            filters.add(Criteria.where("studentId").is(studentId));
+        }
+        if (from != null || to != null) {
+            Criteria range = Criteria.where("uploadDate");
+            if (from != null) {
+                range = range.gte(from);
+            }
+            if (to != null) {
+                range = range.lt(to);
+            }
+            filters.add(range);
+        }
+        if (afterUploadDate != null && afterCertificateId != null) {
+            // _id is stored as an ObjectId, and Mongo never orders a string against one
+            Object afterId = ObjectId.isValid(afterCertificateId) ? new ObjectId(afterCertificateId) : afterCertificateId;
+            filters.add(new Criteria().orOperator(
+                Criteria.where("uploadDate").lt(afterUploadDate),
+                Criteria.where("uploadDate").is(afterUploadDate).and("certificateId").lt(afterId)
+            ));
+        }
+        
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "uploadDate", "certificateId"));
+        return query.limit(limit);
+    }
+    
+    // The name-search tiers in rank order: student-name prefix, other
+    // student-name matches, then certificate-name matches
+    public static List<Query> searchTiers(String text) {
+        String quoted = Pattern.quote(text);
+        return List.of(
+            new Query(Criteria.where("studentName").regex("^" + quoted, "i")),
+            new Query(new Criteria().andOperator(Criteria.where("studentName").regex(quoted, "i"),
+                Criteria.where("studentName").not().regex("^" + quoted, "i"))),
+            new Query(new Criteria().andOperator(Criteria.where("certificateName").regex(quoted, "i"),
+                Criteria.where("studentName").not().regex(quoted, "i")))
+        );
+    }
+    
+    // The certificate if it is still in `from` and no other reviewer holds an unexpired lease on it
+    public static Query decidable(String certificateId, Certificate.Status from, String staffUsername, LocalDateTime now) {
+        return new Query(Criteria.where("_id").is(certificateId).and("status").is(from).orOperator(
+            Criteria.where("leasedBy").is(null),
+            Criteria.where("leasedBy").is(staffUsername),
+            Criteria.where("leaseExpiry").lt(now)
+        ));
+    }
+    
+    public static Query owned(String certificateId, String studentId) {
+        return new Query(Criteria.where("_id").is(certificateId).and("studentId").is(studentId));
+    }
+    
+    // Oldest pending upload with no lease or one that ended before `now`
+    public static Query nextPending(LocalDateTime now) {
+        return new Query(Criteria.where("status").is(Certificate.Status.PENDING).and("leaseExpiry").not().gte(now))
+            .with(Sort.by(Sort.Direction.ASC, "uploadDate"));
+    }
+    
+    public static Query liveLeases(String reviewer, LocalDateTime now) {
+        return new Query(heldBy(reviewer).and("leaseExpiry").gte(now));
+    }
+    
+    public static Query leasesUntil(String reviewer, LocalDateTime leaseExpiry) {
+        return new Query(heldBy(reviewer).and("leaseExpiry").is(leaseExpiry))
+            .with(Sort.by(Sort.Direction.ASC, "uploadDate"));
+    }
+    
+    public static Query lease(String certificateId, String reviewer) {
+        return new Query(heldBy(reviewer).and("_id").is(certificateId));
+    }
+    
+    private static Criteria heldBy(String reviewer) {
+        return Criteria.where("leasedBy").is(reviewer).and("status").is(Certificate.Status.PENDING);
+    }
+}
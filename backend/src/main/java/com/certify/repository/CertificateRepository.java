@@ -4,8 +4,9 @@ import com.certify.model.Certificate;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface CertificateRepository extends MongoRepository<Certificate, String> {
-    List<Certificate> findByStudentId(String studentId);
-    List<Certificate> findByStatus(Certificate.Status status);
-    List<Certificate> findByStudentNameContainingIgnoreCase(String studentName);
+public interface CertificateRepository extends MongoRepository<Certificate, String>, CertificateRepositoryCustom {
+    // The type parameter selects the returned shape: Certificate for the full
+    // document, or a projection class such as CertificateSummary, in which case
+    // only that class's fields are fetched
+    <T> List<T> findAllBy(Class<T> type);
 }
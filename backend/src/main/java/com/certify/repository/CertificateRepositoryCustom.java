@@ -0,0 +1,75 @@
+package com.certify.repository;
+
+import com.certify.model.Certificate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface CertificateRepositoryCustom {
+    // Filtered reads are built from CertificateQueries rather than derived
+    // from the method name, so QueryPlanVerifier can explain the same queries.
+    // `type` selects the returned shape as in CertificateRepository.findAllBy.
+    <T> List<T> findByCertificateIdIn(Collection<String> certificateIds, Class<T> type);
+    <T> List<T> findByStudentId(String studentId, Class<T> type);
+    <T> List<T> findByStatus(Certificate.Status status, Class<T> type);
+    
+    // The newest `limit` uploads; a null studentId covers every certificate
+    List<Certificate> findRecent(String studentId, int limit);
+    
+    // Keyset page ordered by (uploadDate desc, certificateId desc); a null
+    // after-position starts from the newest certificate. Rows are read as
+    // `type`, fetching only its fields when it is a projection.
+    <T> List<T> findPage(Certificate.Status status, String studentId,
+                         LocalDateTime from, LocalDateTime to,
+                         LocalDateTime afterUploadDate, String afterCertificateId,
+                         int limit, Class<T> type);
+    
+    // Case-insensitive name search with the same fields, ranking and cap as
+    // CertificateSearchIndex, for when the index is not available: student-name
+    // prefix matches, then other student-name matches, then certificate-name
+    // matches, at most `limit` in all
+    <T> List<T> searchByName(String text, int limit, Class<T> type);
+    
+    // Status counts and the most recent uploads in a single $facet round trip;
+    // a null studentId aggregates over every certificate
+    CertificateAggregate aggregateByStatus(String studentId, int recentLimit);
+    
+    // Per-student status counts recomputed from the certificates collection;
+    // certificates without a student are grouped under a null key
+    Map<String, Map<Certificate.Status, Long>> countByStudentAndStatus();
+    
+    // Inserts the certificates with one unordered bulk write, so a bad
+    // document does not stop the rest. Ids are assigned up front; returns the
+    // error for each position in the list that was not inserted.
+    Map<Integer, String> insertUnordered(List<Certificate> certificates);
+    
+    // Moves each listed certificate from one status to another with a single
+    // unordered bulk write; certificates not currently in `from`, or under
+    // another reviewer's unexpired lease, are left untouched. Modified
+    // documents get `decisionId` so the caller can find exactly those.
+    // Returns the number of documents modified.
+    int updateStatuses(Collection<String> certificateIds, Certificate.Status from, Certificate.Status to,
+                       String staffUsername, String remarks, LocalDateTime decidedAt, String decisionId);
+    
+    // Atomically moves one certificate from `from` to `to` and returns the
+    // updated document, or null when it does not exist, is no longer in `from`
+    // or is under another reviewer's unexpired lease
+    Certificate transitionStatus(String certificateId, Certificate.Status from, Certificate.Status to,
+                                 String staffUsername, String remarks, LocalDateTime decidedAt);
+    
+    // Atomically removes the student's certificate and returns it as it was
+    // when removed, or null when it does not exist or belongs to someone else
+    Certificate deleteOwned(String certificateId, String studentId);
+    
+    // Atomically leases the oldest pending certificate that has no lease or
+    // whose lease ended before `now`; null when there is none left
+    Certificate leaseNextPending(String reviewer, LocalDateTime now, LocalDateTime leaseExpiry);
+    
+    // Extends the reviewer's unexpired leases to `leaseExpiry` and returns
+    // those certificates, oldest upload first
+    List<Certificate> renewLeases(String reviewer, LocalDateTime now, LocalDateTime leaseExpiry);
+    
+    // Drops the reviewer's lease on a pending certificate; false when they do not hold one
+    boolean releaseLease(String certificateId, String reviewer);
+}
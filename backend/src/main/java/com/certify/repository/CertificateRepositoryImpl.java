@@ -0,0 +1,238 @@
+package com.certify.repository;
+
+import com.certify.model.Certificate;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CertificateRepositoryImpl implements CertificateRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public CertificateRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public <T> List<T> findByCertificateIdIn(Collection<String> certificateIds, Class<T> type) {
+        return mongoTemplate.query(Certificate.class).as(type).matching(CertificateQueries.byIds(certificateIds)).all();
+    }
+    
+    @Override
+    public <T> List<T> findByStudentId(String studentId, Class<T> type) {
+        return mongoTemplate.query(Certificate.class).as(type).matching(CertificateQueries.byStudent(studentId)).all();
+    }
+    
+    @Override
+    public <T> List<T> findByStatus(Certificate.Status status, Class<T> type) {
+        return mongoTemplate.query(Certificate.class).as(type).matching(CertificateQueries.byStatus(status)).all();
+    }
+    
+    @Override
+    public List<Certificate> findRecent(String studentId, int limit) {
+        return mongoTemplate.find(CertificateQueries.recent(studentId, limit), Certificate.class);
+    }
+    
+    @Override
+    public <T> List<T> findPage(Certificate.Status status, String studentId,
+                                LocalDateTime from, LocalDateTime to,
+                                LocalDateTime afterUploadDate, String afterCertificateId,
+                                int limit, Class<T> type) {
+        Query query = CertificateQueries.page(status, studentId, from, to, afterUploadDate, afterCertificateId, limit);
+        return mongoTemplate.query(Certificate.class).as(type).matching(query).all();
+    }
+    
+    @Override
+    public <T> List<T> searchByName(String text, int limit, Class<T> type) {
+        List<T> results = new ArrayList<>();
+        for (Query tier : CertificateQueries.searchTiers(text)) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.addAll(mongoTemplate.query(Certificate.class).as(type).matching(tier.limit(limit - results.size())).all());
+        }
+        return results;
+    }
+    
+    @Override
+    public CertificateAggregate aggregateByStatus(String studentId, int recentLimit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (studentId != null) {
+            stages.add(Aggregation.match(Criteria.where("studentId").is(studentId)));
+        }
+        stages.add(Aggregation.facet(Aggregation.group("status").count().as("count")).as("statusCounts")
+            .and(Aggregation.sort(Sort.Direction.DESC, "uploadDate"), Aggregation.limit(recentLimit)).as("recent"));
+        
+        Document result = mongoTemplate.aggregate(
+            Aggregation.newAggregation(Certificate.class, stages), Document.class
+        ).getUniqueMappedResult();
+        
+        Map<Certificate.Status, Long> statusCounts = new EnumMap<>(Certificate.Status.class);
+        List<Certificate> recent = new ArrayList<>();
+        long total = 0;
+        if (result != null) {
+            for (Document bucket : result.getList("statusCounts", Document.class)) {
+                long count = ((Number) bucket.get("count")).longValue();
+                total += count;
+                Object status = bucket.get("_id");
+                if (status != null) {
+                    statusCounts.put(Certificate.Status.valueOf(status.toString()), count);
+                }
+            }
+            for (Document row : result.getList("recent", Document.class)) {
+                recent.add(mongoTemplate.getConverter().read(Certificate.class, row));
+            }
+        }
+        return new CertificateAggregate(total, statusCounts, recent);
+    }
+    
+    @Override
+    public Map<String, Map<Certificate.Status, Long>> countByStudentAndStatus() {
+        TypedAggregation<Certificate> aggregation = Aggregation.newAggregation(Certificate.class,
+            Aggregation.group("studentId", "status").count().as("count")
+        );
+        
+        Map<String, Map<Certificate.Status, Long>> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            Document key = row.get("_id", Document.class);
+            String studentId = key.getString("studentId");
+            Object status = key.get("status");
+            Map<Certificate.Status, Long> studentCounts =
+                counts.computeIfAbsent(studentId, id -> new EnumMap<>(Certificate.Status.class));
+            if (status != null) {
+                studentCounts.merge(Certificate.Status.valueOf(status.toString()),
+                    ((Number) row.get("count")).longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+    
+    @Override
+    public Map<Integer, String> insertUnordered(List<Certificate> certificates) {
+        if (certificates.isEmpty()) {
+            return Map.of();
+        }
+        for (Certificate certificate : certificates) {
+            if (certificate.getCertificateId() == null) {
+                certificate.setCertificateId(new ObjectId().toHexString());
+            }
+        }
+        
+        Map<Integer, String> failed = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Certificate.class).insert(certificates).execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failed.put(error.getIndex(), error.getMessage()));
+        } catch (DataAccessException e) {
+            // The round trip failed as a whole, so ask which documents made it
+            List<String> ids = certificates.stream().map(Certificate::getCertificateId).toList();
+            Query query = CertificateQueries.byIds(ids);
+            query.fields().include("_id");
+            Set<String> inserted = new HashSet<>();
+            mongoTemplate.find(query, Certificate.class).forEach(certificate -> inserted.add(certificate.getCertificateId()));
+            for (int i = 0; i < ids.size(); i++) {
+                if (!inserted.contains(ids.get(i))) {
+                    failed.put(i, e.getMessage());
+                }
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public int updateStatuses(Collection<String> certificateIds, Certificate.Status from, Certificate.Status to,
+                              String staffUsername, String remarks, LocalDateTime decidedAt, String decisionId) {
+        if (certificateIds.isEmpty()) {
+            return 0;
+        }
+        Update update = decision(to, staffUsername, remarks, decidedAt).set("decisionId", decisionId);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Certificate.class);
+        for (String certificateId : certificateIds) {
+            bulk.updateOne(CertificateQueries.decidable(certificateId, from, staffUsername, decidedAt), update);
+        }
+        return bulk.execute().getModifiedCount();
+    }
+    
+    @Override
+    public Certificate transitionStatus(String certificateId, Certificate.Status from, Certificate.Status to,
+                                        String staffUsername, String remarks, LocalDateTime decidedAt) {
+        return mongoTemplate.findAndModify(
+            CertificateQueries.decidable(certificateId, from, staffUsername, decidedAt),
+            decision(to, staffUsername, remarks, decidedAt),
+            FindAndModifyOptions.options().returnNew(true),
+            Certificate.class
+        );
+    }
+    
+    @Override
+    public Certificate deleteOwned(String certificateId, String studentId) {
+        return mongoTemplate.findAndRemove(
+            CertificateQueries.owned(certificateId, studentId),
+            Certificate.class
+        );
+    }
+    
+    // Walks status_upload_date_lease_expiry from the oldest pending upload and
+    // stops at the first free one, so a call only skips the certificates that
+    // are currently leased. The lease check reads the index key, and the
+    // single findAndModify means concurrent reviewers never get the same one.
+    @Override
+    public Certificate leaseNextPending(String reviewer, LocalDateTime now, LocalDateTime leaseExpiry) {
+        return mongoTemplate.findAndModify(
+            CertificateQueries.nextPending(now),
+            new Update().set("leasedBy", reviewer).set("leaseExpiry", leaseExpiry),
+            FindAndModifyOptions.options().returnNew(true),
+            Certificate.class
+        );
+    }
+    
+    @Override
+    public List<Certificate> renewLeases(String reviewer, LocalDateTime now, LocalDateTime leaseExpiry) {
+        mongoTemplate.updateMulti(
+            CertificateQueries.liveLeases(reviewer, now),
+            new Update().set("leaseExpiry", leaseExpiry),
+            Certificate.class
+        );
+        // Only the leases renewed above carry this exact expiry
+        return mongoTemplate.find(CertificateQueries.leasesUntil(reviewer, leaseExpiry), Certificate.class);
+    }
+    
+    @Override
+    public boolean releaseLease(String certificateId, String reviewer) {
+        return mongoTemplate.updateFirst(
+            CertificateQueries.lease(certificateId, reviewer),
+            new Update().unset("leasedBy").unset("leaseExpiry"),
+            Certificate.class
+        ).getModifiedCount() > 0;
+    }
+    
+    private static Update decision(Certificate.Status to, String staffUsername, String remarks, LocalDateTime decidedAt) {
+        return new Update()
+            .set("status", to)
+            .set("staffRemarks", remarks)
+            .set("verifiedBy", staffUsername)
+            .set("verifiedDate", decidedAt)
+            .unset("leasedBy")
+            .unset("leaseExpiry");
+    }
+}
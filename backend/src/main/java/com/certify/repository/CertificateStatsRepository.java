@@ -0,0 +1,7 @@
+package com.certify.repository;
+
+import com.certify.model.CertificateStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface CertificateStatsRepository extends MongoRepository<CertificateStats, String> {
+}
@@ -0,0 +1,7 @@
+package com.certify.repository;
+
+import com.certify.model.FileBlob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface FileBlobRepository extends MongoRepository<FileBlob, String> {
+}
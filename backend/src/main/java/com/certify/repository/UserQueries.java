@@ -0,0 +1,20 @@
+package com.certify.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.util.Collection;
+
+// Every filtered query UserRepository runs, shared with QueryPlanVerifier
+public final class UserQueries {
+    
+    private UserQueries() {
+    }
+    
+    public static Query byUsername(String username) {
+        return new Query(Criteria.where("username").is(username));
+    }
+    
+    public static Query byUsernames(Collection<String> usernames) {
+        return new Query(Criteria.where("username").in(usernames));
+    }
+}
@@ -2,9 +2,6 @@ package com.certify.repository;
 
 import com.certify.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import java.util.Optional;
 
-public interface UserRepository extends MongoRepository<User, String> {
-    Optional<User> findByUsername(String username);
-    boolean existsByUsername(String username);
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 }
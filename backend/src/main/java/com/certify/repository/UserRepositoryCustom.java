@@ -0,0 +1,19 @@
+package com.certify.repository;
+
+import com.certify.model.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    // Built from UserQueries rather than derived from the method name, so
+    // QueryPlanVerifier can explain the same queries
+    Optional<User> findByUsername(String username);
+    
+    // Reads only the fields of `type`, e.g. UserIdentity without the password hash
+    <T> Optional<T> findByUsername(String username, Class<T> type);
+    
+    boolean existsByUsername(String username);
+    
+    List<User> findByUsernameIn(Collection<String> usernames);
+}
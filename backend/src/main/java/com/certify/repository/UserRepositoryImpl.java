@@ -0,0 +1,36 @@
+package com.certify.repository;
+
+import com.certify.model.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public UserRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return findByUsername(username, User.class);
+    }
+    
+    @Override
+    public <T> Optional<T> findByUsername(String username, Class<T> type) {
+        return mongoTemplate.query(User.class).as(type).matching(UserQueries.byUsername(username)).one();
+    }
+    
+    @Override
+    public boolean existsByUsername(String username) {
+        return mongoTemplate.exists(UserQueries.byUsername(username), User.class);
+    }
+    
+    @Override
+    public List<User> findByUsernameIn(Collection<String> usernames) {
+        return mongoTemplate.find(UserQueries.byUsernames(usernames), User.class);
+    }
+}
@@ -29,15 +29,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.extractUsername(token);
-                String role = jwtUtil.extractRole(token);
-                
+            jwtUtil.authenticate(token).ifPresent(details -> {
                 UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                    username, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+                    details.username(), null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + details.role()))
                 );
                 SecurityContextHolder.getContext().setAuthentication(auth);
-            }
+            });
         }
         
         filterChain.doFilter(request, response);
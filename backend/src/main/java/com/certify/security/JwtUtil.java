@@ -1,11 +1,24 @@
 package com.certify.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -16,8 +29,55 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    // Verified tokens keyed by their SHA-256, each entry living until the token expires
+    private Cache<String, TokenDetails> verified;
+    
+    private final MeterRegistry meterRegistry;
+    private final Timer parseTimer;
+    
+    public JwtUtil(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.parseTimer = Timer.builder("jwt.parse")
+            .description("Signature check and claims parsing on a token cache miss")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    public record TokenDetails(String username, String role, long expiresAtMillis) {}
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verified = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfter(new Expiry<String, TokenDetails>() {
+                @Override
+                public long expireAfterCreate(String key, TokenDetails details, long currentTime) {
+                    long remaining = details.expiresAtMillis() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                }
+                
+                @Override
+                public long expireAfterUpdate(String key, TokenDetails details, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+                
+                @Override
+                public long expireAfterRead(String key, TokenDetails details, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
     }
     
     public String generateToken(String username, String role) {
@@ -26,32 +86,44 @@ public class JwtUtil {
                 .claim("role", role)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
+    // Verifies the token once and returns its subject and role; repeat
+    // requests with the same token are answered from the cache
+    public Optional<TokenDetails> authenticate(String token) {
+        String key = digest(token);
+        TokenDetails cached = verified.getIfPresent(key);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return Optional.of(cached);
+        }
+        
+        try {
+            Claims claims = parseTimer.record(() -> extractClaims(token));
+            Date expiresAt = claims.getExpiration();
+            if (expiresAt == null) {
+                // Tokens are always issued with an expiry; one without it is not cached
+                return Optional.of(new TokenDetails(claims.getSubject(), claims.get("role", String.class), Long.MAX_VALUE));
+            }
+            TokenDetails details = new TokenDetails(claims.getSubject(), claims.get("role", String.class), expiresAt.getTime());
+            verified.put(key, details);
+            return Optional.of(details);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
     
-    public String extractRole(String token) {
-        return extractClaims(token).get("role", String.class);
+    private Claims extractClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
     
-    public boolean validateToken(String token) {
+    private static String digest(String token) {
         try {
-            extractClaims(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
-    
-    private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
 }
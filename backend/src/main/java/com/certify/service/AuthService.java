@@ -3,7 +3,6 @@ package com.certify.service;
 import com.certify.model.User;
 import com.certify.repository.UserRepository;
 import com.certify.security.JwtUtil;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.Map;
@@ -12,12 +11,12 @@ import java.util.Map;
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
     
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, PasswordHashingService passwordHashingService, JwtUtil jwtUtil) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
     }
     
@@ -26,7 +25,7 @@ public class AuthService {
             throw new RuntimeException("Username already exists");
         }
         
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         User savedUser = userRepository.save(user);
         
         String token = jwtUtil.generateToken(savedUser.getUsername(), savedUser.getRole().name());
@@ -37,11 +36,12 @@ public class AuthService {
         return response;
     }
     
+    // Reads the full user rather than the cached identity: the password hash is needed
     public Map<String, Object> login(String username, String password) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("Invalid credentials"));
         
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
         
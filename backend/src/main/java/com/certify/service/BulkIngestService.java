@@ -0,0 +1,349 @@
+package com.certify.service;
+
+import com.certify.model.Certificate;
+import com.certify.model.CertificateMetadata;
+import com.certify.model.User;
+import com.certify.model.UserIdentity;
+import com.certify.repository.UserRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Staff bulk upload: a ZIP of certificate files plus a manifest (JSON array
+// or CSV with a header row) mapping each entry to a student and metadata.
+// Entries are read straight from the ZIP stream; at most `parallelism`
+// stores run at once and at most as many more are buffered, which bounds
+// memory to a few certificates regardless of archive size.
+@Service
+public class BulkIngestService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestService.class);
+    
+    private final CertificateService certificateService;
+    private final FileStorageService fileStorageService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    
+    @Value("${bulk.ingest.batch-size:500}")
+    private int batchSize;
+    
+    public BulkIngestService(CertificateService certificateService,
+                             FileStorageService fileStorageService,
+                             UserRepository userRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${bulk.ingest.parallelism:4}") int parallelism,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.certificateService = certificateService;
+        this.fileStorageService = fileStorageService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        // Caller-runs once the queue is full, so the ZIP reader stalls instead of buffering
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism), threadFactory(virtualThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    // Stores block on GridFS, so in virtual-thread mode the workers are virtual
+    // too; the pool size still bounds how many archive entries sit in memory
+    private static ThreadFactory threadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                return new VirtualThreadTaskExecutor("bulk-ingest-").getVirtualThreadFactory();
+            } catch (UnsupportedOperationException e) {
+                log.warn("Virtual threads need Java 21, using platform threads");
+            }
+        }
+        return Executors.defaultThreadFactory();
+    }
+    
+    public Map<String, Object> ingest(MultipartFile archive, MultipartFile manifest) throws IOException {
+        long start = System.currentTimeMillis();
+        
+        Map<String, ManifestEntry> entries = parseManifest(manifest);
+        Map<String, User> users = new HashMap<>();
+        userRepository.findByUsernameIn(entries.values().stream().map(e -> e.username).distinct().toList())
+            .forEach(user -> users.put(user.getUsername(), user));
+        
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        List<Future<Certificate>> pending = new ArrayList<>();
+        List<String> pendingNames = new ArrayList<>();
+        long maxSize = certificateService.getMaxCertificateSize();
+        
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream())) {
+            readArchive(zip, entries, users, maxSize, results, pending, pendingNames);
+        } catch (IOException | RuntimeException e) {
+            // A corrupt archive aborts the upload; nothing is reported, so give back what was already stored
+            releaseStored(pending);
+            throw e;
+        }
+        
+        List<Certificate> stored = new ArrayList<>();
+        List<String> storedNames = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            String name = pendingNames.get(i);
+            try {
+                stored.add(pending.get(i).get());
+                storedNames.add(name);
+            } catch (ExecutionException e) {
+                results.put(name, result(name, "FAILED", e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                results.put(name, result(name, "FAILED", "Interrupted"));
+            }
+        }
+        
+        for (int from = 0; from < stored.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, stored.size());
+            List<Certificate> batch = stored.subList(from, to);
+            Map<Integer, String> failed;
+            try {
+                failed = certificateService.insertCertificates(batch);
+            } catch (RuntimeException e) {
+                // Not even which documents were written is known, so keep the files rather than
+                // risk releasing ones a certificate now points at
+                log.warn("Bulk insert outcome unknown, keeping {} stored files", batch.size(), e);
+                for (int i = from; i < to; i++) {
+                    results.put(storedNames.get(i), result(storedNames.get(i), "FAILED", e.getMessage()));
+                }
+                continue;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                String name = storedNames.get(from + i);
+                String error = failed.get(i);
+                if (error == null) {
+                    Map<String, Object> result = result(name, "CREATED", null);
+                    result.put("certificateId", batch.get(i).getCertificateId());
+                    results.put(name, result);
+                } else {
+                    fileStorageService.deleteFile(batch.get(i).getFileId());
+                    results.put(name, result(name, "FAILED", error));
+                }
+            }
+        }
+        
+        entries.keySet().stream()
+            .filter(name -> !results.containsKey(name))
+            .forEach(name -> results.put(name, result(name, "MISSING", "Not found in archive")));
+        
+        Map<String, Object> report = new HashMap<>();
+        report.put("results", results.values());
+        report.put("created", results.values().stream().filter(r -> "CREATED".equals(r.get("status"))).count());
+        report.put("failed", results.values().stream().filter(r -> !"CREATED".equals(r.get("status"))).count());
+        report.put("durationMs", System.currentTimeMillis() - start);
+        return report;
+    }
+    
+    private void readArchive(ZipInputStream zip, Map<String, ManifestEntry> entries, Map<String, User> users,
+                             long maxSize, Map<String, Map<String, Object>> results,
+                             List<Future<Certificate>> pending, List<String> pendingNames) throws IOException {
+        ZipEntry zipEntry;
+        while ((zipEntry = zip.getNextEntry()) != null) {
+            if (zipEntry.isDirectory()) {
+                continue;
+            }
+            String name = zipEntry.getName();
+            ManifestEntry entry = entries.get(name);
+            if (entry == null) {
+                results.put(name, result(name, "SKIPPED", "No manifest entry"));
+                continue;
+            }
+            User user = users.get(entry.username);
+            if (user == null) {
+                results.put(name, result(name, "FAILED", "User not found: " + entry.username));
+                continue;
+            }
+            
+            byte[] content = readEntry(zip, maxSize);
+            if (content == null) {
+                results.put(name, result(name, "FAILED", "File exceeds maximum size"));
+                continue;
+            }
+            
+            results.put(name, result(name, "PENDING", null));
+            pendingNames.add(name);
+            pending.add(executor.submit(() -> store(entry, user, content)));
+        }
+    }
+    
+    // Cancels stores that have not started and releases the files of those that finished
+    private void releaseStored(List<Future<Certificate>> pending) {
+        pending.forEach(future -> future.cancel(false));
+        for (Future<Certificate> future : pending) {
+            if (future.isCancelled()) {
+                continue;
+            }
+            try {
+                fileStorageService.deleteFile(future.get().getFileId());
+            } catch (ExecutionException e) {
+                // The store failed, so there is nothing to release
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not release a file from an aborted bulk upload", e);
+            }
+        }
+    }
+    
+    private Certificate store(ManifestEntry entry, User user, byte[] content) throws IOException {
+        String fileName = entry.entry.substring(entry.entry.lastIndexOf('/') + 1);
+        String contentType = entry.contentType != null ? entry.contentType :
+            MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        
+        StoredFile storedFile = fileStorageService.storeFile(new ByteArrayResource(content), fileName, contentType, content.length);
+        return certificateService.newCertificate(UserIdentity.of(user), entry.certificateName, entry.toMetadata(), storedFile,
+            fileName, contentType);
+    }
+    
+    private Map<String, ManifestEntry> parseManifest(MultipartFile manifest) throws IOException {
+        String name = manifest.getOriginalFilename() == null ? "" : manifest.getOriginalFilename().toLowerCase();
+        List<ManifestEntry> parsed;
+        if (name.endsWith(".csv") || "text/csv".equals(manifest.getContentType())) {
+            parsed = parseCsv(manifest.getInputStream());
+        } else {
+            parsed = objectMapper.readValue(manifest.getInputStream(), new TypeReference<List<ManifestEntry>>() {});
+        }
+        
+        Map<String, ManifestEntry> entries = new LinkedHashMap<>();
+        for (ManifestEntry entry : parsed) {
+            if (entry.entry == null || entry.username == null || entry.certificateName == null) {
+                throw new RuntimeException("Manifest entries need entry, username and certificateName");
+            }
+            entries.put(entry.entry, entry);
+        }
+        return entries;
+    }
+    
+    private List<ManifestEntry> parseCsv(InputStream in) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                return entries;
+            }
+            List<String> header = splitCsvLine(headerLine);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = splitCsvLine(line);
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    row.put(header.get(i).trim(), values.get(i).isEmpty() ? null : values.get(i));
+                }
+                entries.add(objectMapper.convertValue(row, ManifestEntry.class));
+            }
+        }
+        return entries;
+    }
+    
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+    
+    // Reads the current entry, or returns null once it grows past maxSize
+    private static byte[] readEntry(ZipInputStream zip, long maxSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = zip.read(buffer)) != -1) {
+            if (out.size() + read > maxSize) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+    
+    private static Map<String, Object> result(String entry, String status, String error) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("entry", entry);
+        result.put("status", status);
+        if (error != null) {
+            result.put("error", error);
+        }
+        return result;
+    }
+    
+    public static class ManifestEntry {
+        public String entry;
+        public String username;
+        public String certificateName;
+        public String contentType;
+        public String certificateType;
+        public String issuingOrganization;
+        public String issueYear;
+        public String department;
+        
+        CertificateMetadata toMetadata() {
+            if (certificateType == null && issuingOrganization == null && issueYear == null && department == null) {
+                return null;
+            }
+            CertificateMetadata metadata = new CertificateMetadata();
+            metadata.setCertificateType(certificateType);
+            metadata.setIssuingOrganization(issuingOrganization);
+            metadata.setIssueYear(issueYear);
+            metadata.setDepartment(department);
+            return metadata;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.certify.service;
+
+import com.certify.model.Certificate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+// Trigram index over studentName and certificateName. Each certificate gets
+// an int ordinal; every trigram maps to an ascending list of ordinals, so a
+// query is an intersection of a few posting lists followed by a substring
+// check on the surviving candidates. Queries of one or two characters are
+// answered from separate 1- and 2-gram lists per field, walked tier by tier
+// until the limit is reached.
+@Component
+public class CertificateSearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(CertificateSearchIndex.class);
+    
+    // Short-gram kinds, kept above the 48 bits a trigram key uses
+    private static final int STUDENT_PREFIX = 1;
+    private static final int STUDENT_NAME = 2;
+    private static final int CERTIFICATE_NAME = 3;
+    
+    private final MongoTemplate mongoTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // Rebuilds and compactions run here, building the new index without holding the lock
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    @Value("${search.index.max-documents:2000000}")
+    private int maxDocuments;
+    
+    private Index index = new Index();
+    // Changes made while a new index is being built, replayed onto it before the swap
+    private List<Consumer<Index>> journal;
+    private volatile boolean ready;
+    
+    public CertificateSearchIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("studentName").include("certificateName");
+        
+        if (!startJournal()) {
+            return;
+        }
+        Index fresh = new Index();
+        try (Stream<Certificate> certificates = mongoTemplate.stream(query, Certificate.class)) {
+            certificates.forEach(certificate -> fresh.add(
+                certificate.getCertificateId(), certificate.getStudentName(), certificate.getCertificateName()
+            ));
+        } catch (RuntimeException e) {
+            abandonJournal();
+            throw e;
+        }
+        swap(fresh);
+        log.info("Indexed {} certificates in {}ms{}", fresh.ordinalById.size(), System.currentTimeMillis() - start,
+            fresh.overCapacity ? " (over capacity, disabled)" : "");
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public void add(Certificate certificate) {
+        String certificateId = certificate.getCertificateId();
+        String studentName = certificate.getStudentName();
+        String certificateName = certificate.getCertificateName();
+        lock.writeLock().lock();
+        try {
+            index.add(certificateId, studentName, certificateName);
+            if (journal != null) {
+                journal.add(target -> target.add(certificateId, studentName, certificateName));
+            }
+            if (index.overCapacity) {
+                ready = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(String certificateId) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            index.remove(certificateId);
+            if (journal != null) {
+                journal.add(target -> target.remove(certificateId));
+            }
+            // Tombstones only cost memory; compact once they dominate
+            compact = journal == null && index.removedCount > 1024 && index.removedCount > index.ids.size() / 2;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            rebuilder.execute(this::compact);
+        }
+    }
+    
+    // Certificate ids whose student or certificate name contains the query,
+    // best matches first: student-name prefix, student-name substring, then
+    // certificate-name substring
+    public List<String> search(String text, int limit) {
+        String needle = normalize(text);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                return index.searchShort(needle, limit);
+            }
+            
+            List<List<String>> tiers = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            for (int ordinal : index.candidates(needle)) {
+                index.rank(ordinal, needle, tiers);
+            }
+            
+            List<String> result = new ArrayList<>(Math.min(limit, 64));
+            for (List<String> tier : tiers) {
+                for (String id : tier) {
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long postingBytes = 0;
+            for (PostingList list : index.postings.values()) {
+                postingBytes += 16 + 4L * list.ordinals.length + 48;
+            }
+            long documentBytes = 0;
+            for (int ordinal = 0; ordinal < index.ids.size(); ordinal++) {
+                documentBytes += 120 + 2L * (length(index.ids.get(ordinal)) + length(index.studentNames.get(ordinal)) +
+                                             length(index.certificateNames.get(ordinal)));
+            }
+            
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ready", ready);
+            stats.put("documents", index.ordinalById.size());
+            stats.put("tombstones", index.removedCount);
+            stats.put("grams", index.postings.size());
+            stats.put("rebuilding", journal != null);
+            stats.put("maxDocuments", maxDocuments);
+            stats.put("estimatedBytes", postingBytes + documentBytes);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Copies the live documents under the read lock, indexes them with no lock
+    // held, then swaps the result in; searches keep using the old index meanwhile
+    private void compact() {
+        if (!startJournal()) {
+            return;
+        }
+        List<String[]> live = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ordinal = 0; ordinal < index.ids.size(); ordinal++) {
+                if (!index.removed.get(ordinal)) {
+                    live.add(new String[] {
+                        index.ids.get(ordinal), index.studentNames.get(ordinal), index.certificateNames.get(ordinal)
+                    });
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        Index fresh = new Index();
+        for (String[] document : live) {
+            fresh.addNormalized(document[0], document[1], document[2]);
+        }
+        swap(fresh);
+        log.debug("Compacted search index to {} documents", fresh.ordinalById.size());
+    }
+    
+    // False when another rebuild is already journaling
+    private boolean startJournal() {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                return false;
+            }
+            journal = new ArrayList<>();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void abandonJournal() {
+        lock.writeLock().lock();
+        try {
+            journal = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Adds and removes are idempotent, so replaying a change the new index
+    // already saw is harmless
+    private void swap(Index fresh) {
+        lock.writeLock().lock();
+        try {
+            journal.forEach(change -> change.accept(fresh));
+            journal = null;
+            index = fresh;
+            ready = !fresh.overCapacity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+    
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+    
+    private static long trigram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+    
+    private static long shortGram(int kind, String value, int offset, int length) {
+        long chars = length == 1 ? value.charAt(offset) : ((long) value.charAt(offset) << 16) | value.charAt(offset + 1);
+        return ((long) (kind << 2 | length) << 48) | chars;
+    }
+    
+    private final class Index {
+        private final Map<Long, PostingList> postings = new HashMap<>();
+        private final Map<String, Integer> ordinalById = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> studentNames = new ArrayList<>();
+        private final List<String> certificateNames = new ArrayList<>();
+        private final BitSet removed = new BitSet();
+        private int removedCount;
+        private boolean overCapacity;
+        
+        private void add(String certificateId, String studentName, String certificateName) {
+            remove(certificateId);
+            addNormalized(certificateId, normalize(studentName), normalize(certificateName));
+        }
+        
+        private void addNormalized(String certificateId, String student, String certificate) {
+            if (certificateId == null) {
+                return;
+            }
+            if (ordinalById.size() >= maxDocuments) {
+                overCapacity = true;
+                return;
+            }
+            
+            int ordinal = ids.size();
+            ids.add(certificateId);
+            studentNames.add(student);
+            certificateNames.add(certificate);
+            ordinalById.put(certificateId, ordinal);
+            
+            // Ordinals only grow, so appending keeps every posting list sorted
+            Set<Long> grams = new LinkedHashSet<>();
+            for (String name : new String[] { student, certificate }) {
+                for (int i = 0; i + 3 <= name.length(); i++) {
+                    grams.add(trigram(name, i));
+                }
+            }
+            for (int length = 1; length <= 2 && length <= student.length(); length++) {
+                grams.add(shortGram(STUDENT_PREFIX, student, 0, length));
+            }
+            addShortGrams(grams, STUDENT_NAME, student);
+            addShortGrams(grams, CERTIFICATE_NAME, certificate);
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, key -> new PostingList()).add(ordinal);
+            }
+        }
+        
+        private void remove(String certificateId) {
+            Integer ordinal = ordinalById.remove(certificateId);
+            if (ordinal != null) {
+                removed.set(ordinal);
+                removedCount++;
+            }
+        }
+        
+        // Walks the prefix, student-name and certificate-name lists in turn,
+        // skipping what an earlier tier already returned, and stops at the
+        // limit; the work is bounded by the limit plus tombstones
+        private List<String> searchShort(String needle, int limit) {
+            List<String> result = new ArrayList<>(Math.min(limit, 64));
+            collect(result, limit, shortGram(STUDENT_PREFIX, needle, 0, needle.length()), ordinal -> true);
+            collect(result, limit, shortGram(STUDENT_NAME, needle, 0, needle.length()),
+                ordinal -> !studentNames.get(ordinal).startsWith(needle));
+            collect(result, limit, shortGram(CERTIFICATE_NAME, needle, 0, needle.length()),
+                ordinal -> !studentNames.get(ordinal).contains(needle));
+            return result;
+        }
+        
+        private void collect(List<String> result, int limit, long gram, IntPredicate accept) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return;
+            }
+            for (int i = 0; i < list.size && result.size() < limit; i++) {
+                int ordinal = list.ordinals[i];
+                if (!removed.get(ordinal) && accept.test(ordinal)) {
+                    result.add(ids.get(ordinal));
+                }
+            }
+        }
+        
+        private void rank(int ordinal, String needle, List<List<String>> tiers) {
+            if (removed.get(ordinal)) {
+                return;
+            }
+            String studentName = studentNames.get(ordinal);
+            String certificateName = certificateNames.get(ordinal);
+            if (studentName.startsWith(needle)) {
+                tiers.get(0).add(ids.get(ordinal));
+            } else if (studentName.contains(needle)) {
+                tiers.get(1).add(ids.get(ordinal));
+            } else if (certificateName.contains(needle)) {
+                tiers.get(2).add(ids.get(ordinal));
+            }
+        }
+        
+        private int[] candidates(String needle) {
+            Set<Long> grams = new LinkedHashSet<>();
+            for (int i = 0; i + 3 <= needle.length(); i++) {
+                grams.add(trigram(needle, i));
+            }
+            
+            List<PostingList> lists = new ArrayList<>(grams.size());
+            for (long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            
+            int[] result = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+            int size = result.length;
+            for (int i = 1; i < lists.size() && size > 0; i++) {
+                size = intersect(result, size, lists.get(i));
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+    
+    private static void addShortGrams(Set<Long> grams, int kind, String name) {
+        for (int length = 1; length <= 2; length++) {
+            for (int i = 0; i + length <= name.length(); i++) {
+                grams.add(shortGram(kind, name, i, length));
+            }
+        }
+    }
+    
+    private static int intersect(int[] target, int targetSize, PostingList list) {
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < targetSize && j < list.size; i++) {
+            int ordinal = target[i];
+            while (j < list.size && list.ordinals[j] < ordinal) {
+                j++;
+            }
+            if (j < list.size && list.ordinals[j] == ordinal) {
+                target[size++] = ordinal;
+            }
+        }
+        return size;
+    }
+    
+    private static final class PostingList {
+        private int[] ordinals = new int[4];
+        private int size;
+        
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
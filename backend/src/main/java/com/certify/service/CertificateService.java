@@ -1,146 +1,450 @@
 package com.certify.service;
 
+import com.certify.config.CacheConfig;
+import com.certify.exception.CertificateConflictException;
 import com.certify.model.Certificate;
-import com.certify.model.User;
+import com.certify.model.CertificateMetadata;
+import com.certify.model.CertificatePosition;
+import com.certify.model.CertificateStats;
+import com.certify.model.UserIdentity;
+import com.certify.repository.CertificateAggregate;
 import com.certify.repository.CertificateRepository;
-import com.certify.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
+@Timed(value = "certificate.service", histogram = true)
 public class CertificateService {
     
+    private static final Logger log = LoggerFactory.getLogger(CertificateService.class);
+    
     private final CertificateRepository certificateRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityService userIdentityService;
     private final FileStorageService fileStorageService;
+    private final CertificateStatsService certificateStatsService;
+    private final CertificateSearchIndex certificateSearchIndex;
+    private final CacheManager cacheManager;
+    
+    @Value("${pagination.default-page-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${search.max-results:200}")
+    private int maxSearchResults;
+    
+    @Value("${upload.max-certificate-size:10MB}")
+    private DataSize maxCertificateSize;
+    
+    @Value("${review.bulk.max-ids:1000}")
+    private int maxBulkDecisionIds;
     
     public CertificateService(CertificateRepository certificateRepository, 
-                            UserRepository userRepository,
-                            FileStorageService fileStorageService) {
+                            UserIdentityService userIdentityService,
+                            FileStorageService fileStorageService,
+                            CertificateStatsService certificateStatsService,
+                            CertificateSearchIndex certificateSearchIndex,
+                            CacheManager cacheManager) {
         this.certificateRepository = certificateRepository;
-        this.userRepository = userRepository;
+        this.userIdentityService = userIdentityService;
         this.fileStorageService = fileStorageService;
+        this.certificateStatsService = certificateStatsService;
+        this.certificateSearchIndex = certificateSearchIndex;
+        this.cacheManager = cacheManager;
     }
     
+    @CachePut(value = CacheConfig.CERTIFICATES, key = "#result.certificateId")
     public Certificate uploadCertificate(String username, String certificateName, MultipartFile file) {
-        User user = userRepository.findByUsername(username)
+        return uploadCertificate(username, certificateName, null, file);
+    }
+    
+    // Stores the file, then writes the complete document (metadata included)
+    // with a single insert; if the insert fails the stored file is released
+    // so no orphaned blob is left behind
+    @CachePut(value = CacheConfig.CERTIFICATES, key = "#result.certificateId")
+    public Certificate uploadCertificate(String username, String certificateName,
+                                         CertificateMetadata metadata, MultipartFile file) {
+        UserIdentity user = userIdentityService.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
+        Certificate saved;
+        String write;
         try {
-            String fileId = fileStorageService.storeFile(file);
+            if (file.getSize() > maxCertificateSize.toBytes()) {
+                throw new RuntimeException("File size exceeds maximum limit of " + maxCertificateSize.toMegabytes() + "MB");
+            }
             
-            Certificate certificate = new Certificate();
-            certificate.setStudentId(user.getId());
-            certificate.setStudentName(user.getFullName());
-            certificate.setCertificateName(certificateName);
-            certificate.setFileId(fileId);
-            certificate.setFileName(file.getOriginalFilename());
-            certificate.setFileType(file.getContentType());
-            certificate.setUploadDate(LocalDateTime.now());
-            certificate.setStatus(Certificate.Status.PENDING);
+            StoredFile storedFile = fileStorageService.storeFile(file);
+            Certificate certificate = newCertificate(user, certificateName, metadata, storedFile,
+                file.getOriginalFilename(), file.getContentType());
             
-            return certificateRepository.save(certificate);
+            write = certificateStatsService.beginWrite();
+            try {
+                saved = certificateRepository.insert(certificate);
+            } catch (RuntimeException e) {
+                certificateStatsService.abortWrite(write);
+                fileStorageService.deleteFile(storedFile.getFileId());
+                throw e;
+            }
         } catch (Exception e) {
             throw new RuntimeException("Failed to upload certificate: " + e.getMessage());
         }
+        
+        certificateStatsService.recordUpload(write, saved.getStudentId(), saved.getStatus());
+        certificateSearchIndex.add(saved);
+        return saved;
     }
     
-    public List<Certificate> getStudentCertificates(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        return certificateRepository.findByStudentId(user.getId());
+    public Certificate newCertificate(UserIdentity user, String certificateName, CertificateMetadata metadata,
+                                      StoredFile storedFile, String fileName, String fileType) {
+        Certificate certificate = new Certificate();
+        certificate.setStudentId(user.getId());
+        certificate.setStudentName(user.getFullName());
+        certificate.setCertificateName(certificateName);
+        certificate.setFileId(storedFile.getFileId());
+        certificate.setFileName(fileName);
+        certificate.setFileType(fileType);
+        certificate.setFileHash(storedFile.getSha256());
+        certificate.setFileSize(storedFile.getSize());
+        certificate.setUploadDate(LocalDateTime.now());
+        certificate.setStatus(Certificate.Status.PENDING);
+        certificate.setMetadata(metadata);
+        return certificate;
     }
     
-    public List<Certificate> getAllCertificates() {
-        return certificateRepository.findAll();
+    // Inserts the batch with one unordered bulk write and returns the error
+    // for each position that was not inserted; the rest are indexed and counted
+    public Map<Integer, String> insertCertificates(List<Certificate> certificates) {
+        String write = certificateStatsService.beginWrite();
+        Map<Integer, String> failed;
+        try {
+            failed = certificateRepository.insertUnordered(certificates);
+        } catch (RuntimeException e) {
+            certificateStatsService.abortWrite(write);
+            throw e;
+        }
+        
+        Map<String, Long> uploadsByStudent = new HashMap<>();
+        for (int i = 0; i < certificates.size(); i++) {
+            if (!failed.containsKey(i)) {
+                Certificate certificate = certificates.get(i);
+                uploadsByStudent.merge(certificate.getStudentId(), 1L, Long::sum);
+                certificateSearchIndex.add(certificate);
+            }
+        }
+        certificateStatsService.recordUploads(write, uploadsByStudent, Certificate.Status.PENDING);
+        return failed;
     }
     
-    public List<Certificate> searchCertificates(String studentName) {
-        return certificateRepository.findByStudentNameContainingIgnoreCase(studentName);
+    public long getMaxCertificateSize() {
+        return maxCertificateSize.toBytes();
     }
     
-    public List<Certificate> getCertificatesByStatus(Certificate.Status status) {
-        return certificateRepository.findByStatus(status);
+    public <T extends CertificatePosition> List<T> getStudentCertificates(String username, Class<T> type) {
+        UserIdentity user = userIdentityService.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        return certificateRepository.findByStudentId(user.getId(), type);
     }
     
-    public Certificate verifyCertificate(String certificateId, String staffUsername, String remarks) {
-        Certificate certificate = certificateRepository.findById(certificateId)
-            .orElseThrow(() -> new RuntimeException("Certificate not found"));
+    // Loads through Caffeine's atomic get rather than @Cacheable: the evict a
+    // write issues once it has committed waits for a load already in flight
+    // and then drops what that load read, where a @Cacheable put could land
+    // after the evict and keep the old document. Misses are not cached, since
+    // an id can start to exist later.
+    public Optional<Certificate> findById(String certificateId) {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.CERTIFICATES);
+        Object certificate = cache.getNativeCache().get(certificateId,
+            id -> certificateRepository.findById(certificateId).orElse(null));
+        return Optional.ofNullable((Certificate) certificate);
+    }
+    
+    public <T extends CertificatePosition> List<T> getAllCertificates(Class<T> type) {
+        return certificateRepository.findAllBy(type);
+    }
+    
+    public <T extends CertificatePosition> Map<String, Object> getCertificatePage(
+            Certificate.Status status, String studentId, LocalDateTime from, LocalDateTime to,
+            String cursor, Integer size, Class<T> type) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
         
-        certificate.setStatus(Certificate.Status.VERIFIED);
-        certificate.setStaffRemarks(remarks);
-        certificate.setVerifiedBy(staffUsername);
-        certificate.setVerifiedDate(LocalDateTime.now());
+        LocalDateTime afterUploadDate = null;
+        String afterCertificateId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            afterUploadDate = LocalDateTime.parse(position[0]);
+            afterCertificateId = position[1];
+        }
         
-        return certificateRepository.save(certificate);
+        // Fetch one extra row to know whether another page exists
+        List<T> rows = certificateRepository.findPage(
+            status, studentId, from, to, afterUploadDate, afterCertificateId, pageSize + 1, type
+        );
+        boolean hasMore = rows.size() > pageSize;
+        List<T> content = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        Map<String, Object> page = new HashMap<>();
+        page.put("content", content);
+        page.put("size", content.size());
+        page.put("hasMore", hasMore);
+        page.put("nextCursor", hasMore ? encodeCursor(content.get(content.size() - 1)) : null);
+        return page;
+    }
+    
+    private String encodeCursor(CertificatePosition last) {
+        String position = last.getUploadDate() + "|" + last.getCertificateId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    public long countCertificates() {
+        return certificateRepository.count();
+    }
+    
+    public <T extends CertificatePosition> List<T> searchCertificates(String studentName, Class<T> type) {
+        if (!certificateSearchIndex.isReady()) {
+            return certificateRepository.searchByName(studentName, maxSearchResults, type);
+        }
+        
+        List<String> rankedIds = certificateSearchIndex.search(studentName, maxSearchResults);
+        Map<String, T> byId = new HashMap<>();
+        certificateRepository.findByCertificateIdIn(rankedIds, type).forEach(c -> byId.put(c.getCertificateId(), c));
+        return rankedIds.stream()
+            .map(byId::get)
+            .filter(c -> c != null)
+            .toList();
     }
     
+    public <T extends CertificatePosition> List<T> getCertificatesByStatus(Certificate.Status status, Class<T> type) {
+        return certificateRepository.findByStatus(status, type);
+    }
+    
+    @CacheEvict(value = CacheConfig.CERTIFICATES, key = "#certificateId")
+    public Certificate verifyCertificate(String certificateId, String staffUsername, String remarks) {
+        return decide(certificateId, Certificate.Status.VERIFIED, staffUsername, remarks);
+    }
+    
+    @CacheEvict(value = CacheConfig.CERTIFICATES, key = "#certificateId")
     public Certificate rejectCertificate(String certificateId, String staffUsername, String remarks) {
-        Certificate certificate = certificateRepository.findById(certificateId)
-            .orElseThrow(() -> new RuntimeException("Certificate not found"));
+        return decide(certificateId, Certificate.Status.REJECTED, staffUsername, remarks);
+    }
+    
+    // Single conditional findAndModify: only a PENDING certificate can be
+    // decided, so of two reviewers racing on the same one exactly one wins
+    // and the other gets a conflict instead of silently overwriting it. A
+    // certificate leased from the review queue can only be decided by the
+    // reviewer holding the lease until it expires.
+    private Certificate decide(String certificateId, Certificate.Status decision, String staffUsername, String remarks) {
+        String write = certificateStatsService.beginWrite();
+        Certificate updated;
+        try {
+            updated = certificateRepository.transitionStatus(certificateId, Certificate.Status.PENDING,
+                decision, staffUsername, remarks, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            certificateStatsService.abortWrite(write);
+            throw e;
+        }
+        if (updated == null) {
+            certificateStatsService.abortWrite(write);
+            Certificate current = certificateRepository.findById(certificateId)
+                .orElseThrow(() -> new RuntimeException("Certificate not found"));
+            if (current.getStatus() == Certificate.Status.PENDING) {
+                throw new CertificateConflictException("Certificate is leased by " + current.getLeasedBy() +
+                    " until " + current.getLeaseExpiry());
+            }
+            throw new CertificateConflictException("Certificate was already " + String.valueOf(current.getStatus()).toLowerCase() +
+                (current.getVerifiedBy() != null ? " by " + current.getVerifiedBy() : ""));
+        }
+        certificateStatsService.recordStatusChange(write, updated.getStudentId(), Certificate.Status.PENDING, decision);
+        return updated;
+    }
+    
+    // Applies one staff decision to many pending certificates in a single bulk
+    // write. Every write in the batch carries the same decidedAt, so reading
+    // the documents back tells which ones this call changed, which had
+    // already been decided by someone else and which another reviewer leased.
+    public Map<String, Object> decideCertificates(List<String> certificateIds, Certificate.Status decision,
+                                                  String staffUsername, String remarks) {
+        if (decision != Certificate.Status.VERIFIED && decision != Certificate.Status.REJECTED) {
+            throw new RuntimeException("Decision must be VERIFIED or REJECTED");
+        }
+        if (certificateIds == null || certificateIds.isEmpty()) {
+            throw new RuntimeException("No certificate ids given");
+        }
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(certificateIds));
+        if (ids.size() > maxBulkDecisionIds) {
+            throw new RuntimeException("At most " + maxBulkDecisionIds + " certificates can be decided at once");
+        }
         
-        certificate.setStatus(Certificate.Status.REJECTED);
-        certificate.setStaffRemarks(remarks);
-        certificate.setVerifiedBy(staffUsername);
-        certificate.setVerifiedDate(LocalDateTime.now());
+        // Tags the documents this call modifies; a timestamp could collide with
+        // another call by the same reviewer in the same millisecond
+        String decisionId = UUID.randomUUID().toString();
+        LocalDateTime decidedAt = LocalDateTime.now();
+        Map<String, Certificate> byId = new HashMap<>();
+        String write = certificateStatsService.beginWrite();
+        try {
+            certificateRepository.updateStatuses(ids, Certificate.Status.PENDING, decision, staffUsername, remarks,
+                                                 decidedAt, decisionId);
+            certificateRepository.findAllById(ids).forEach(certificate -> byId.put(certificate.getCertificateId(), certificate));
+        } catch (RuntimeException e) {
+            certificateStatsService.abortWrite(write);
+            throw e;
+        }
         
-        return certificateRepository.save(certificate);
+        List<String> updated = new ArrayList<>();
+        List<String> alreadyDecided = new ArrayList<>();
+        List<String> leased = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        Map<String, Long> changesByStudent = new HashMap<>();
+        Cache cache = cacheManager.getCache(CacheConfig.CERTIFICATES);
+        for (String id : ids) {
+            Certificate certificate = byId.get(id);
+            if (certificate == null) {
+                notFound.add(id);
+            } else if (decisionId.equals(certificate.getDecisionId())) {
+                updated.add(id);
+                changesByStudent.merge(certificate.getStudentId(), 1L, Long::sum);
+                if (cache != null) {
+                    cache.evict(id);
+                }
+            } else if (certificate.getStatus() == Certificate.Status.PENDING) {
+                leased.add(id);
+            } else {
+                alreadyDecided.add(id);
+            }
+        }
+        certificateStatsService.recordStatusChanges(write, changesByStudent, Certificate.Status.PENDING, decision);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("decision", decision);
+        result.put("updated", updated);
+        result.put("alreadyDecided", alreadyDecided);
+        result.put("leased", leased);
+        result.put("notFound", notFound);
+        result.put("updatedCount", updated.size());
+        return result;
     }
     
+    @CacheEvict(value = CacheConfig.CERTIFICATES, key = "#certificateId")
     public void deleteCertificate(String certificateId, String username) {
         Certificate certificate = certificateRepository.findById(certificateId)
             .orElseThrow(() -> new RuntimeException("Certificate not found"));
         
-        User user = userRepository.findByUsername(username)
+        UserIdentity user = userIdentityService.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (!certificate.getStudentId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized to delete this certificate");
         }
         
-        fileStorageService.deleteFile(certificate.getFileId());
-        certificateRepository.deleteById(certificateId);
+        // Counted with the status it had when removed, not the one read above
+        String write = certificateStatsService.beginWrite();
+        Certificate deleted;
+        try {
+            deleted = certificateRepository.deleteOwned(certificateId, user.getId());
+        } catch (RuntimeException e) {
+            certificateStatsService.abortWrite(write);
+            throw e;
+        }
+        if (deleted == null) {
+            certificateStatsService.abortWrite(write);
+            throw new RuntimeException("Certificate not found");
+        }
+        certificateStatsService.recordDelete(write, deleted.getStudentId(), deleted.getStatus());
+        certificateSearchIndex.remove(certificateId);
+        
+        // Released only once no document points at the file; a failed release
+        // leaves one extra reference (the blob is kept), never a dangling one
+        try {
+            fileStorageService.deleteFile(deleted.getFileId());
+        } catch (RuntimeException e) {
+            log.error("Certificate deleted but its file reference was not released: certificateId={}, fileId={}",
+                certificateId, deleted.getFileId(), e);
+        }
     }
     
+    @CacheEvict(value = CacheConfig.CERTIFICATES, key = "#certificate.certificateId")
     public Certificate saveCertificate(Certificate certificate) {
         return certificateRepository.save(certificate);
     }
     
     public Map<String, Object> getStudentAnalytics(String username) {
-        User user = userRepository.findByUsername(username)
+        UserIdentity user = userIdentityService.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Certificate> certificates = certificateRepository.findByStudentId(user.getId());
-        
         Map<String, Object> analytics = new HashMap<>();
-        analytics.put("totalUploaded", certificates.size());
-        analytics.put("verified", certificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.VERIFIED ? 1 : 0).sum());
-        analytics.put("pending", certificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.PENDING ? 1 : 0).sum());
-        analytics.put("rejected", certificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.REJECTED ? 1 : 0).sum());
-        analytics.put("recentUploads", certificates.stream()
-            .sorted((a, b) -> b.getUploadDate().compareTo(a.getUploadDate()))
-            .limit(5)
-            .toList());
+        CertificateStats stats = certificateStatsService.getStudentStats(user.getId()).orElse(null);
+        if (stats != null) {
+            analytics.put("totalUploaded", stats.getTotal());
+            analytics.put("verified", stats.getCount(Certificate.Status.VERIFIED));
+            analytics.put("pending", stats.getCount(Certificate.Status.PENDING));
+            analytics.put("rejected", stats.getCount(Certificate.Status.REJECTED));
+            analytics.put("recentUploads", certificateRepository.findRecent(user.getId(), 5));
+            return analytics;
+        }
+        
+        // No counters yet (e.g. before the first reconcile), so aggregate directly
+        CertificateAggregate aggregate = certificateRepository.aggregateByStatus(user.getId(), 5);
+        analytics.put("totalUploaded", aggregate.getTotal());
+        analytics.put("verified", aggregate.getCount(Certificate.Status.VERIFIED));
+        analytics.put("pending", aggregate.getCount(Certificate.Status.PENDING));
+        analytics.put("rejected", aggregate.getCount(Certificate.Status.REJECTED));
+        analytics.put("recentUploads", aggregate.getRecent());
         
         return analytics;
     }
     
     public Map<String, Object> getStaffAnalytics() {
-        List<Certificate> allCertificates = certificateRepository.findAll();
-        
         Map<String, Object> analytics = new HashMap<>();
-        analytics.put("totalCertificates", allCertificates.size());
-        analytics.put("pendingReview", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.PENDING ? 1 : 0).sum());
-        analytics.put("verified", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.VERIFIED ? 1 : 0).sum());
-        analytics.put("rejected", allCertificates.stream().mapToInt(c -> c.getStatus() == Certificate.Status.REJECTED ? 1 : 0).sum());
-        analytics.put("recentActivity", allCertificates.stream()
-            .sorted((a, b) -> b.getUploadDate().compareTo(a.getUploadDate()))
-            .limit(10)
-            .toList());
+        CertificateStats stats = certificateStatsService.getGlobalStats().orElse(null);
+        if (stats != null) {
+            analytics.put("totalCertificates", stats.getTotal());
+            analytics.put("pendingReview", stats.getCount(Certificate.Status.PENDING));
+            analytics.put("verified", stats.getCount(Certificate.Status.VERIFIED));
+            analytics.put("rejected", stats.getCount(Certificate.Status.REJECTED));
+            analytics.put("recentActivity", certificateRepository.findRecent(null, 10));
+            return analytics;
+        }
+        
+        CertificateAggregate aggregate = certificateRepository.aggregateByStatus(null, 10);
+        analytics.put("totalCertificates", aggregate.getTotal());
+        analytics.put("pendingReview", aggregate.getCount(Certificate.Status.PENDING));
+        analytics.put("verified", aggregate.getCount(Certificate.Status.VERIFIED));
+        analytics.put("rejected", aggregate.getCount(Certificate.Status.REJECTED));
+        analytics.put("recentActivity", aggregate.getRecent());
         
         return analytics;
     }
@@ -0,0 +1,343 @@
+package com.certify.service;
+
+import com.certify.model.Certificate;
+import com.certify.model.CertificateStats;
+import com.certify.model.PendingStatsWrite;
+import com.certify.repository.CertificateRepository;
+import com.certify.repository.CertificateStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Service
+public class CertificateStatsService {
+    
+    private static final Logger log = LoggerFactory.getLogger(CertificateStatsService.class);
+    
+    private final MongoTemplate mongoTemplate;
+    private final CertificateStatsRepository certificateStatsRepository;
+    private final CertificateRepository certificateRepository;
+    
+    @Value("${stats.reconcile.pending-write-timeout:10m}")
+    private Duration pendingWriteTimeout;
+    
+    public CertificateStatsService(MongoTemplate mongoTemplate,
+                                   CertificateStatsRepository certificateStatsRepository,
+                                   CertificateRepository certificateRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.certificateStatsRepository = certificateStatsRepository;
+        this.certificateRepository = certificateRepository;
+    }
+    
+    public Optional<CertificateStats> getGlobalStats() {
+        return certificateStatsRepository.findById(CertificateStats.GLOBAL_ID);
+    }
+    
+    public Optional<CertificateStats> getStudentStats(String studentId) {
+        return certificateStatsRepository.findById(CertificateStats.studentStatsId(studentId));
+    }
+    
+    // Every certificate write that changes the counters runs between
+    // beginWrite() and one record* call (or abortWrite() when the write did
+    // not happen). Each write has its own marker, so reconcile can tell
+    // when one is in flight without all writers contending on one document.
+    public String beginWrite() {
+        PendingStatsWrite write = new PendingStatsWrite();
+        write.setStartedAt(LocalDateTime.now());
+        return mongoTemplate.insert(write).getId();
+    }
+    
+    public void abortWrite(String write) {
+        mongoTemplate.remove(byId(write), PendingStatsWrite.class);
+    }
+    
+    public void recordUpload(String write, String studentId, Certificate.Status status) {
+        apply(write, studentId, update -> update.inc("total", 1).inc(countField(status), 1));
+    }
+    
+    public void recordUploads(String write, Map<String, Long> uploadsByStudent, Certificate.Status status) {
+        long total = uploadsByStudent.values().stream().mapToLong(Long::longValue).sum();
+        if (total > 0) {
+            mongoTemplate.upsert(byId(CertificateStats.GLOBAL_ID),
+                new Update().inc("total", total).inc(countField(status), total).inc("version", 1), CertificateStats.class);
+            uploadsByStudent.forEach((studentId, count) -> {
+                if (studentId != null) {
+                    mongoTemplate.upsert(byId(CertificateStats.studentStatsId(studentId)),
+                        new Update().set("studentId", studentId).inc("total", count).inc(countField(status), count)
+                            .inc("version", 1),
+                        CertificateStats.class);
+                }
+            });
+        }
+        abortWrite(write);
+    }
+    
+    public void recordStatusChange(String write, String studentId, Certificate.Status from, Certificate.Status to) {
+        if (from == to) {
+            abortWrite(write);
+            return;
+        }
+        apply(write, studentId, update -> {
+            if (from != null) {
+                update.inc(countField(from), -1);
+            }
+            if (to != null) {
+                update.inc(countField(to), 1);
+            }
+        });
+    }
+    
+    public void recordStatusChanges(String write, Map<String, Long> changesByStudent,
+                                    Certificate.Status from, Certificate.Status to) {
+        long total = changesByStudent.values().stream().mapToLong(Long::longValue).sum();
+        if (total > 0 && from != to) {
+            mongoTemplate.upsert(byId(CertificateStats.GLOBAL_ID),
+                new Update().inc(countField(from), -total).inc(countField(to), total).inc("version", 1),
+                CertificateStats.class);
+            changesByStudent.forEach((studentId, count) -> {
+                if (studentId != null) {
+                    mongoTemplate.upsert(byId(CertificateStats.studentStatsId(studentId)),
+                        new Update().set("studentId", studentId).inc(countField(from), -count).inc(countField(to), count)
+                            .inc("version", 1),
+                        CertificateStats.class);
+                }
+            });
+        }
+        abortWrite(write);
+    }
+    
+    public void recordDelete(String write, String studentId, Certificate.Status status) {
+        apply(write, studentId, update -> {
+            update.inc("total", -1);
+            if (status != null) {
+                update.inc(countField(status), -1);
+            }
+        });
+    }
+    
+    // Recounts every counter document from the certificates collection and
+    // replaces the counts that drifted. Deltas would race the write path: a
+    // certificate can be visible to the aggregate before its $inc lands. So
+    // the run is abandoned when a write is in flight before or after the
+    // count, or the global counts changed while counting, and each
+    // replacement is conditional on the document's version, which every
+    // counter write bumps. A write that begins after the check only adds its
+    // own certificate to the new counts.
+    public Map<String, Object> reconcile() {
+        long start = System.currentTimeMillis();
+        
+        Map<String, Object> report = new HashMap<>();
+        Map<String, CertificateStats> actual = storedStats();
+        CertificateStats globalBefore = actual.get(CertificateStats.GLOBAL_ID);
+        if (writesInFlight()) {
+            log.info("Skipped stats reconcile: certificate writes in flight");
+            return skipped(report, "writes in flight", start);
+        }
+        Map<String, Map<Certificate.Status, Long>> countsByStudent = certificateRepository.countByStudentAndStatus();
+        if (writesInFlight() || version(getGlobalStats().orElse(null)) != version(globalBefore)) {
+            log.info("Skipped stats reconcile: certificates were written while counting");
+            return skipped(report, "written while counting", start);
+        }
+        
+        Map<String, CertificateStats> expected = new HashMap<>();
+        CertificateStats global = newStats(CertificateStats.GLOBAL_ID, null);
+        expected.put(global.getId(), global);
+        countsByStudent.forEach((studentId, counts) -> {
+            counts.forEach((status, count) -> addCount(global, status, count));
+            if (studentId != null) {
+                CertificateStats student = newStats(CertificateStats.studentStatsId(studentId), studentId);
+                counts.forEach((status, count) -> addCount(student, status, count));
+                expected.put(student.getId(), student);
+            }
+        });
+        
+        Set<String> ids = new HashSet<>(expected.keySet());
+        ids.addAll(actual.keySet());
+        
+        List<Map<String, Object>> drift = new ArrayList<>();
+        List<String> busy = new ArrayList<>();
+        for (String id : ids) {
+            CertificateStats wanted = expected.get(id);
+            CertificateStats stored = actual.get(id);
+            if (sameCounts(wanted, stored)) {
+                continue;
+            }
+            if (replace(id, wanted, stored)) {
+                drift.add(driftEntry(id, wanted, stored));
+            } else {
+                busy.add(id);
+            }
+        }
+        
+        if (!drift.isEmpty() || !busy.isEmpty()) {
+            log.info("Reconciled {} drifted stats documents, {} changed during the run and were left for the next one",
+                drift.size(), busy.size());
+        }
+        
+        report.put("checked", ids.size());
+        report.put("drifted", drift.size());
+        report.put("drift", drift);
+        report.put("skipped", busy);
+        report.put("durationMs", System.currentTimeMillis() - start);
+        return report;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+    
+    @Scheduled(cron = "${stats.reconcile.cron:0 0 3 * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+    
+    private void apply(String write, String studentId, Consumer<Update> increments) {
+        Update globalUpdate = new Update().inc("version", 1);
+        increments.accept(globalUpdate);
+        mongoTemplate.upsert(byId(CertificateStats.GLOBAL_ID), globalUpdate, CertificateStats.class);
+        if (studentId != null) {
+            Update studentUpdate = new Update().set("studentId", studentId).inc("version", 1);
+            increments.accept(studentUpdate);
+            mongoTemplate.upsert(byId(CertificateStats.studentStatsId(studentId)), studentUpdate, CertificateStats.class);
+        }
+        abortWrite(write);
+    }
+    
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+    
+    private static String countField(Certificate.Status status) {
+        return "counts." + status.name();
+    }
+    
+    private static CertificateStats newStats(String id, String studentId) {
+        CertificateStats stats = new CertificateStats();
+        stats.setId(id);
+        stats.setStudentId(studentId);
+        stats.setCounts(new EnumMap<>(Certificate.Status.class));
+        return stats;
+    }
+    
+    private static void addCount(CertificateStats stats, Certificate.Status status, long count) {
+        stats.getCounts().merge(status, count, Long::sum);
+        stats.setTotal(stats.getTotal() + count);
+    }
+    
+    private Map<String, CertificateStats> storedStats() {
+        Map<String, CertificateStats> stats = new HashMap<>();
+        certificateStatsRepository.findAll().forEach(stored -> stats.put(stored.getId(), stored));
+        return stats;
+    }
+    
+    // Writes the expected counts over the stored document if its version is
+    // still the one read before counting; a missing document on either side
+    // counts as all zeros. False when a counter write got there first.
+    private boolean replace(String id, CertificateStats expected, CertificateStats stored) {
+        if (stored == null) {
+            try {
+                mongoTemplate.insert(expected);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+        Query unchanged = atVersion(id, stored.getVersion());
+        if (expected == null) {
+            // The student no longer has certificates
+            return mongoTemplate.remove(unchanged, CertificateStats.class).getDeletedCount() == 1;
+        }
+        Update update = new Update().set("total", expected.getTotal()).inc("version", 1);
+        for (Certificate.Status status : Certificate.Status.values()) {
+            update.set(countField(status), count(expected, status));
+        }
+        return mongoTemplate.updateFirst(unchanged, update, CertificateStats.class).getModifiedCount() == 1;
+    }
+    
+    // A write that never recorded its counts (the process died, or the
+    // counter update failed) would block reconcile forever, so its marker is
+    // dropped once it is older than the timeout; the recount then covers it
+    private boolean writesInFlight() {
+        long expired = mongoTemplate.remove(
+            new Query(Criteria.where("startedAt").lt(LocalDateTime.now().minus(pendingWriteTimeout))),
+            PendingStatsWrite.class
+        ).getDeletedCount();
+        if (expired > 0) {
+            log.warn("Dropped {} certificate writes that never recorded their counts", expired);
+        }
+        return mongoTemplate.exists(new Query(), PendingStatsWrite.class);
+    }
+    
+    // Documents written before versions existed have no version field
+    private static Query atVersion(String id, long version) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        return new Query(version == 0 ? criteria.and("version").in(0L, null) : criteria.and("version").is(version));
+    }
+    
+    private static Map<String, Object> skipped(Map<String, Object> report, String reason, long start) {
+        report.put("abandoned", reason);
+        report.put("durationMs", System.currentTimeMillis() - start);
+        return report;
+    }
+    
+    private static long version(CertificateStats stats) {
+        return stats == null ? 0 : stats.getVersion();
+    }
+    
+    private static long total(CertificateStats stats) {
+        return stats == null ? 0 : stats.getTotal();
+    }
+    
+    private static long count(CertificateStats stats, Certificate.Status status) {
+        return stats == null ? 0 : stats.getCount(status);
+    }
+    
+    private static boolean sameCounts(CertificateStats a, CertificateStats b) {
+        if (total(a) != total(b)) {
+            return false;
+        }
+        for (Certificate.Status status : Certificate.Status.values()) {
+            if (count(a, status) != count(b, status)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static Map<String, Object> driftEntry(String id, CertificateStats expected, CertificateStats stored) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", id);
+        entry.put("expectedTotal", total(expected));
+        entry.put("storedTotal", total(stored));
+        Map<String, Long> delta = new HashMap<>();
+        for (Certificate.Status status : Certificate.Status.values()) {
+            long diff = count(expected, status) - count(stored, status);
+            if (diff != 0) {
+                delta.put(status.name(), diff);
+            }
+        }
+        entry.put("delta", delta);
+        return entry;
+    }
+}
@@ -0,0 +1,104 @@
+package com.certify.service;
+
+import com.certify.config.CacheConfig;
+import com.certify.model.Certificate;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// One-off migration that folds GridFS files uploaded before content
+// addressing into file_blobs. Each legacy file is handled once, with one
+// reference for every certificate pointing at it. Safe to re-run: files
+// that are already managed are skipped.
+@Service
+public class FileDeduplicationService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final FileStorageService fileStorageService;
+    private final CacheManager cacheManager;
+    
+    public FileDeduplicationService(MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate,
+                                    FileStorageService fileStorageService, CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.fileStorageService = fileStorageService;
+        this.cacheManager = cacheManager;
+    }
+    
+    public Map<String, Object> migrate() {
+        long start = System.currentTimeMillis();
+        long scanned = 0;
+        long adopted = 0;
+        long merged = 0;
+        long missing = 0;
+        long bytesSaved = 0;
+        
+        Query query = new Query(Criteria.where("fileId").ne(null));
+        query.fields().include("fileId");
+        Set<String> seen = new HashSet<>();
+        
+        try (Stream<Certificate> certificates = mongoTemplate.stream(query, Certificate.class)) {
+            for (Certificate certificate : (Iterable<Certificate>) certificates::iterator) {
+                scanned++;
+                String fileId = certificate.getFileId();
+                if (!seen.add(fileId) || fileStorageService.isManaged(fileId)) {
+                    continue;
+                }
+                
+                GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
+                if (file == null) {
+                    missing++;
+                    continue;
+                }
+                
+                Query sharing = new Query(Criteria.where("fileId").is(fileId));
+                long references = mongoTemplate.count(sharing, Certificate.class);
+                String sha256 = fileStorageService.hashStoredFile(fileId);
+                String canonicalId = fileStorageService.adoptExistingFile(fileId, sha256, file.getLength(), references);
+                
+                // Point the certificates at the canonical copy before the old one goes
+                mongoTemplate.updateMulti(
+                    sharing,
+                    new Update().set("fileId", canonicalId).set("fileHash", sha256).set("fileSize", file.getLength()),
+                    Certificate.class
+                );
+                
+                if (canonicalId.equals(fileId)) {
+                    adopted++;
+                } else {
+                    fileStorageService.purgeFile(fileId);
+                    merged++;
+                    bytesSaved += file.getLength();
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("File deduplication failed: " + e.getMessage());
+        } finally {
+            Cache cache = cacheManager.getCache(CacheConfig.CERTIFICATES);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        
+        Map<String, Object> report = new HashMap<>();
+        report.put("scanned", scanned);
+        report.put("adopted", adopted);
+        report.put("merged", merged);
+        report.put("missing", missing);
+        report.put("bytesSaved", bytesSaved);
+        report.put("durationMs", System.currentTimeMillis() - start);
+        return report;
+    }
+}
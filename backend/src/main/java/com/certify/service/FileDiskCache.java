@@ -0,0 +1,201 @@
+package com.certify.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Size-bounded local copy of GridFS blobs. Files are immutable once stored,
+// so a cached copy never goes stale and only needs dropping on delete.
+@Component
+public class FileDiskCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(FileDiskCache.class);
+    
+    // <fileId>-<uuid>.blob for cached copies, .part while loading
+    private static final Pattern CACHE_FILE_NAME =
+        Pattern.compile(".+-[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(blob|part)");
+    
+    public interface Loader {
+        // Writes the blob to target and returns false when it does not exist
+        boolean load(String fileId, Path target) throws IOException;
+    }
+    
+    @Value("${storage.disk-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${storage.disk-cache.directory:${java.io.tmpdir}/certificate-file-cache}")
+    private Path directory;
+    
+    @Value("${storage.disk-cache.max-bytes:1073741824}")
+    private long maxBytes;
+    
+    private AsyncCache<String, CachedFile> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong bytesLoaded = new AtomicLong();
+    
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        
+        // The index lives in memory, so copies left from a previous run are
+        // unknown; only names this cache writes are removed
+        Files.createDirectories(directory);
+        try (Stream<Path> stale = Files.list(directory)) {
+            stale.filter(path -> CACHE_FILE_NAME.matcher(path.getFileName().toString()).matches())
+                .forEach(FileDiskCache::deleteQuietly);
+        }
+        
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String fileId, CachedFile file) -> (int) Math.min(Integer.MAX_VALUE, file.length))
+            .removalListener((String fileId, CachedFile file, RemovalCause cause) -> {
+                if (cause.wasEvicted()) {
+                    evictions.incrementAndGet();
+                }
+                if (file != null) {
+                    // Every load has its own name, so a late listener never touches a newer copy;
+                    // open channels keep reading after the name goes away
+                    deleteQuietly(file.path);
+                }
+            })
+            .buildAsync();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Finds the cached copy, loading it once when several requests miss at
+    // the same time: the first caller loads, the others wait on its future.
+    // Nothing is opened here, so a caller that never reads holds no file
+    // descriptor; open() reports a copy evicted in the meantime.
+    public CachedFile lookup(String fileId, Loader loader) throws IOException {
+        CompletableFuture<CachedFile> created = new CompletableFuture<>();
+        CompletableFuture<CachedFile> existing = cache.asMap().putIfAbsent(fileId, created);
+        if (existing == null) {
+            misses.incrementAndGet();
+            return load(fileId, loader, created);
+        }
+        CachedFile file = join(existing);
+        if (file != null) {
+            hits.incrementAndGet();
+        }
+        return file;
+    }
+    
+    // Opens a copy returned by lookup; NoSuchFileException once it has been
+    // evicted. An open channel keeps reading after eviction removes the name.
+    public FileChannel open(CachedFile file) throws IOException {
+        FileChannel channel = FileChannel.open(file.path, StandardOpenOption.READ);
+        bytesServed.addAndGet(file.length);
+        return channel;
+    }
+    
+    private CachedFile load(String fileId, Loader loader, CompletableFuture<CachedFile> created) throws IOException {
+        String name = fileId + "-" + UUID.randomUUID();
+        Path target = directory.resolve(name + ".blob");
+        Path temp = directory.resolve(name + ".part");
+        try {
+            if (!loader.load(fileId, temp)) {
+                deleteQuietly(temp);
+                created.complete(null);
+                return null;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            CachedFile file = new CachedFile(target, Files.size(target));
+            bytesLoaded.addAndGet(file.length);
+            created.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            deleteQuietly(target);
+            cache.asMap().remove(fileId, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    public void invalidate(String fileId) {
+        if (cache != null) {
+            cache.synchronous().invalidate(fileId);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("bytesServed", bytesServed.get());
+        stats.put("bytesLoaded", bytesLoaded.get());
+        stats.put("maxBytes", maxBytes);
+        if (cache != null) {
+            stats.put("entries", cache.synchronous().estimatedSize());
+            cache.synchronous().policy().eviction()
+                .ifPresent(eviction -> stats.put("cachedBytes", eviction.weightedSize().orElse(0L)));
+        }
+        return stats;
+    }
+    
+    private static CachedFile join(CompletableFuture<CachedFile> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+    
+    public static final class CachedFile {
+        private final Path path;
+        private final long length;
+        
+        private CachedFile(Path path, long length) {
+            this.path = path;
+            this.length = length;
+        }
+        
+        public long getLength() {
+            return length;
+        }
+    }
+}
@@ -1,46 +1,437 @@
 package com.certify.service;
 
+import com.certify.model.Certificate;
+import com.certify.model.FileBlob;
 import com.mongodb.client.gridfs.model.GridFSFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 public class FileStorageService {
     
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+    
     private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final FileDiskCache fileDiskCache;
+    private final AtomicLong deduplicatedUploads = new AtomicLong();
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+    
+    private final DistributionSummary uploadSize;
+    private final Counter bytesWritten;
+    private final Counter bytesRead;
+    private final Timer writeTimer;
+    private final Timer readTimer;
     
-    public FileStorageService(GridFsTemplate gridFsTemplate) {
+    public FileStorageService(GridFsTemplate gridFsTemplate, MongoTemplate mongoTemplate, FileDiskCache fileDiskCache,
+                              MeterRegistry meterRegistry) {
         this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.fileDiskCache = fileDiskCache;
+        this.uploadSize = DistributionSummary.builder("certificate.upload.size")
+            .description("Size of uploaded certificate files, including deduplicated ones")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1024.0)
+            .maximumExpectedValue(200.0 * 1024 * 1024)
+            .register(meterRegistry);
+        this.bytesWritten = gridFsBytes(meterRegistry, "written");
+        this.bytesRead = gridFsBytes(meterRegistry, "read");
+        this.writeTimer = gridFsStream(meterRegistry, "write");
+        this.readTimer = gridFsStream(meterRegistry, "read");
+    }
+    
+    // Shared with ReactiveFileStorageService so both read paths add up to the same series
+    static Counter gridFsBytes(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("gridfs." + direction)
+            .description("Bytes " + direction + " through GridFS streams")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+    
+    static Timer gridFsStream(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("gridfs.stream")
+            .description("Time from opening a GridFS stream until it is closed")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+    
+    // Content-addressed store: the upload is hashed first, and bytes that are
+    // already stored only gain a reference instead of a second GridFS copy
+    public StoredFile storeFile(MultipartFile file) throws IOException {
+        return storeFile(file, file.getOriginalFilename(), file.getContentType(), file.getSize());
+    }
+    
+    public StoredFile storeFile(InputStreamSource source, String filename, String contentType, long size) throws IOException {
+        uploadSize.record(size);
+        String sha256;
+        try (InputStream in = source.getInputStream()) {
+            sha256 = digest(in);
+        }
+        
+        FileBlob existing = incrementReference(sha256, 1);
+        if (existing != null) {
+            deduplicatedUploads.incrementAndGet();
+            deduplicatedBytes.addAndGet(existing.getLength());
+            return new StoredFile(existing.getFileId(), sha256, existing.getLength(), true);
+        }
+        
+        ObjectId fileId;
+        try (InputStream in = metered(source.getInputStream(), bytesWritten, writeTimer)) {
+            fileId = gridFsTemplate.store(in, filename, contentType, new Document("sha256", sha256));
+        }
+        
+        FileBlob blob = registerBlob(sha256, fileId.toString(), size, 1);
+        if (!blob.getFileId().equals(fileId.toString())) {
+            // A concurrent upload of the same bytes registered first
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(fileId)));
+            deduplicatedUploads.incrementAndGet();
+            deduplicatedBytes.addAndGet(blob.getLength());
+            return new StoredFile(blob.getFileId(), sha256, blob.getLength(), true);
+        }
+        return new StoredFile(blob.getFileId(), sha256, blob.getLength(), false);
     }
     
-    public String storeFile(MultipartFile file) throws IOException {
-        return gridFsTemplate.store(
-            file.getInputStream(),
-            file.getOriginalFilename(),
-            file.getContentType()
-        ).toString();
+    // Registers a GridFS file stored before deduplication existed, counting
+    // one reference per certificate that points at it. Returns the id of the
+    // canonical copy, which differs from fileId when the same bytes are
+    // already stored; the caller then repoints and purges the old file.
+    public String adoptExistingFile(String fileId, String sha256, long length, long references) {
+        FileBlob existing = incrementReference(sha256, references);
+        if (existing != null) {
+            return existing.getFileId();
+        }
+        return registerBlob(sha256, fileId, length, references).getFileId();
     }
     
-    public InputStream getFile(String fileId) {
+    public String hashStoredFile(String fileId) throws IOException {
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
+        if (file == null) {
+            return null;
+        }
+        if (file.getMetadata() != null && file.getMetadata().getString("sha256") != null) {
+            return file.getMetadata().getString("sha256");
+        }
+        try (InputStream in = metered(gridFsTemplate.getResource(file).getInputStream(), bytesRead, readTimer)) {
+            return digest(in);
+        }
+    }
+    
+    public boolean isManaged(String fileId) {
+        return mongoTemplate.exists(new Query(Criteria.where("fileId").is(fileId)), FileBlob.class);
+    }
+    
+    public Map<String, Object> getStorageStats() {
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.group()
+                .count().as("blobs")
+                .sum("refCount").as("references")
+                .sum("length").as("storedBytes")
+                .sum(ArithmeticOperators.Multiply.valueOf(
+                    ArithmeticOperators.Subtract.valueOf("refCount").subtract(1)).multiplyBy("length"))
+                .as("deduplicatedBytes")
+        );
+        Document totals = mongoTemplate.aggregate(aggregation, FileBlob.class, Document.class).getUniqueMappedResult();
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("blobs", totals == null ? 0 : totals.get("blobs"));
+        stats.put("references", totals == null ? 0 : totals.get("references"));
+        stats.put("storedBytes", totals == null ? 0 : totals.get("storedBytes"));
+        stats.put("deduplicatedBytes", totals == null ? 0 : totals.get("deduplicatedBytes"));
+        stats.put("deduplicatedUploadsSinceStart", deduplicatedUploads.get());
+        stats.put("deduplicatedBytesSinceStart", deduplicatedBytes.get());
+        stats.put("diskCache", fileDiskCache.getStats());
+        return stats;
+    }
+    
+    // Length-aware resource that opens a fresh GridFS download stream per read,
+    // so Spring MVC can answer Range requests (including multipart/byteranges)
+    // and the stream's skip() seeks straight to the chunk holding the offset
+    public Resource getFileResource(String fileId) {
         try {
-            GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
-            if (file == null) {
-                System.out.println("FileStorageService: File not found with ID: " + fileId);
-                return null;
+            if (fileDiskCache.isEnabled()) {
+                FileDiskCache.CachedFile cached = fileDiskCache.lookup(fileId, this::downloadTo);
+                if (cached == null) {
+                    log.debug("File not found: fileId={}", fileId);
+                    return null;
+                }
+                return new CachedFileResource(fileId, fileDiskCache, cached, () -> gridFsResource(fileId));
             }
-            return gridFsTemplate.getResource(file).getInputStream();
+            
+            Resource resource = gridFsResource(fileId);
+            if (resource == null) {
+                log.debug("File not found: fileId={}", fileId);
+            }
+            return resource;
         } catch (Exception e) {
-            System.err.println("FileStorageService: Error retrieving file " + fileId + ": " + e.getMessage());
+            log.error("Error retrieving file: fileId={}", fileId, e);
             return null;
         }
     }
     
+    private Resource gridFsResource(String fileId) {
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
+        return file == null ? null : new GridFsFileResource(gridFsTemplate, file, bytesRead, readTimer);
+    }
+    
+    // Drops one reference; the GridFS chunks go only when no certificate still
+    // points at them. Files from before deduplication have no reference count
+    // and go once no certificate uses them.
     public void deleteFile(String fileId) {
+        FileBlob blob = mongoTemplate.findAndModify(
+            new Query(Criteria.where("fileId").is(fileId)),
+            new Update().inc("refCount", -1),
+            FindAndModifyOptions.options().returnNew(true),
+            FileBlob.class
+        );
+        if (blob == null) {
+            if (!mongoTemplate.exists(new Query(Criteria.where("fileId").is(fileId)), Certificate.class)) {
+                purgeFile(fileId);
+            }
+            return;
+        }
+        if (blob.getRefCount() > 0) {
+            return;
+        }
+        
+        // Only remove the blob if no upload re-referenced it in the meantime
+        boolean released = mongoTemplate.remove(
+            new Query(Criteria.where("_id").is(blob.getSha256()).and("refCount").lte(0)), FileBlob.class
+        ).getDeletedCount() > 0;
+        if (released) {
+            purgeFile(fileId);
+        }
+    }
+    
+    public void purgeFile(String fileId) {
+        fileDiskCache.invalidate(fileId);
         gridFsTemplate.delete(new Query(Criteria.where("_id").is(fileId)));
     }
+    
+    private boolean downloadTo(String fileId, Path target) throws IOException {
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
+        if (file == null) {
+            return false;
+        }
+        try (InputStream in = metered(gridFsTemplate.getResource(file).getInputStream(), bytesRead, readTimer)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+    
+    private FileBlob incrementReference(String sha256, long references) {
+        return mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(sha256)),
+            new Update().inc("refCount", references),
+            FindAndModifyOptions.options().returnNew(true),
+            FileBlob.class
+        );
+    }
+    
+    private FileBlob registerBlob(String sha256, String fileId, long length, long references) {
+        return mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(sha256)),
+            new Update()
+                .inc("refCount", references)
+                .setOnInsert("fileId", fileId)
+                .setOnInsert("length", length)
+                .setOnInsert("createdDate", LocalDateTime.now()),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            FileBlob.class
+        );
+    }
+    
+    private static String digest(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        try (DigestInputStream digestStream = new DigestInputStream(in, digest)) {
+            digestStream.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static InputStream metered(InputStream in, Counter bytes, Timer timer) {
+        return new MeteredInputStream(in, bytes, timer);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static class GridFsFileResource extends AbstractResource {
+        private final GridFsTemplate gridFsTemplate;
+        private final GridFSFile file;
+        private final Counter bytesRead;
+        private final Timer readTimer;
+        
+        GridFsFileResource(GridFsTemplate gridFsTemplate, GridFSFile file, Counter bytesRead, Timer readTimer) {
+            this.gridFsTemplate = gridFsTemplate;
+            this.file = file;
+            this.bytesRead = bytesRead;
+            this.readTimer = readTimer;
+        }
+        
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return metered(gridFsTemplate.getResource(file).getInputStream(), bytesRead, readTimer);
+        }
+        
+        @Override
+        public long contentLength() {
+            return file.getLength();
+        }
+        
+        @Override
+        public long lastModified() {
+            return file.getUploadDate().getTime();
+        }
+        
+        @Override
+        public String getFilename() {
+            return file.getFilename();
+        }
+        
+        @Override
+        public boolean exists() {
+            return true;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "GridFS file [" + file.getId() + "]";
+        }
+    }
+    
+    // A disk cache copy found by FileDiskCache. Each stream opens its own
+    // channel and closes it with the stream, so a response that never reads
+    // the body (HEAD, 304, an unsatisfiable range) holds no descriptor. A copy
+    // evicted since the lookup is read from GridFS instead.
+    private static class CachedFileResource extends AbstractResource {
+        private final String fileId;
+        private final FileDiskCache cache;
+        private final FileDiskCache.CachedFile file;
+        private final Supplier<Resource> fallback;
+        
+        CachedFileResource(String fileId, FileDiskCache cache, FileDiskCache.CachedFile file, Supplier<Resource> fallback) {
+            this.fileId = fileId;
+            this.cache = cache;
+            this.file = file;
+            this.fallback = fallback;
+        }
+        
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return Channels.newInputStream(cache.open(file));
+            } catch (NoSuchFileException e) {
+                log.debug("Cached copy evicted, reading GridFS: fileId={}", fileId);
+            }
+            Resource resource = fallback.get();
+            if (resource == null) {
+                throw new FileNotFoundException("File " + fileId + " no longer exists");
+            }
+            return resource.getInputStream();
+        }
+        
+        @Override
+        public long contentLength() {
+            return file.getLength();
+        }
+        
+        @Override
+        public boolean exists() {
+            return true;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Cached file [" + fileId + "]";
+        }
+    }
+    
+    // Counts bytes as they pass and records the stream's lifetime once on close
+    private static class MeteredInputStream extends FilterInputStream {
+        private final Counter bytes;
+        private final Timer timer;
+        private final long openedAt = System.nanoTime();
+        private long count;
+        private boolean closed;
+        
+        MeteredInputStream(InputStream in, Counter bytes, Timer timer) {
+            super(in);
+            this.bytes = bytes;
+            this.timer = timer;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                bytes.increment(count);
+                timer.record(System.nanoTime() - openedAt, TimeUnit.NANOSECONDS);
+            }
+            super.close();
+        }
+    }
 }
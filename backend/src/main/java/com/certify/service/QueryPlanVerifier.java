@@ -0,0 +1,161 @@
+package com.certify.service;
+
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.certify.repository.CertificateQueries;
+import com.certify.repository.UserQueries;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class QueryPlanVerifier {
+    
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanVerifier.class);
+    
+    // Unanchored regex search cannot use an index by design
+    private static final Set<String> EXPECTED_COLLSCANS = Set.of(
+        "CertificateRepository.searchByName"
+    );
+    
+    private static final String PROBE = "query-plan-probe";
+    
+    private final MongoTemplate mongoTemplate;
+    
+    private final QueryMapper queryMapper;
+    
+    @Value("${mongo.query-plan-check:warn}")
+    private String mode;
+    
+    public QueryPlanVerifier(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.queryMapper = new QueryMapper(mongoTemplate.getConverter());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        if ("off".equalsIgnoreCase(mode)) {
+            return;
+        }
+        
+        Map<String, Object> report = verify();
+        @SuppressWarnings("unchecked")
+        List<String> collectionScans = (List<String>) report.get("collectionScans");
+        if (collectionScans.isEmpty()) {
+            log.info("All repository queries use an index");
+            return;
+        }
+        
+        String message = "COLLSCAN for " + String.join(", ", collectionScans);
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("QueryPlanVerifier: " + message);
+        }
+        log.warn(message);
+    }
+    
+    public Map<String, Object> verify() {
+        LocalDateTime now = LocalDateTime.now();
+        Certificate.Status pending = Certificate.Status.PENDING;
+        String cursorId = new ObjectId().toHexString();
+        
+        Map<String, Object> plans = new LinkedHashMap<>();
+        List<String> collectionScans = new ArrayList<>();
+        
+        Map<String, Query> certificateQueries = new LinkedHashMap<>();
+        certificateQueries.put("findByCertificateIdIn", CertificateQueries.byIds(List.of(cursorId)));
+        certificateQueries.put("findByStudentId", CertificateQueries.byStudent(PROBE));
+        certificateQueries.put("findByStatus", CertificateQueries.byStatus(pending));
+        certificateQueries.put("findRecent", CertificateQueries.recent(null, 10));
+        certificateQueries.put("findRecent(studentId)", CertificateQueries.recent(PROBE, 5));
+        certificateQueries.put("findPage", CertificateQueries.page(null, null, null, null, null, null, 21));
+        certificateQueries.put("findPage(status)", CertificateQueries.page(pending, null, null, null, null, null, 21));
+        certificateQueries.put("findPage(studentId)", CertificateQueries.page(null, PROBE, null, null, null, null, 21));
+        certificateQueries.put("findPage(from, to)",
+            CertificateQueries.page(null, null, now.minusDays(30), now, null, null, 21));
+        certificateQueries.put("findPage(status, from, to)",
+            CertificateQueries.page(pending, null, now.minusDays(30), now, null, null, 21));
+        certificateQueries.put("findPage(cursor)", CertificateQueries.page(null, null, null, null, now, cursorId, 21));
+        certificateQueries.put("findPage(status, cursor)",
+            CertificateQueries.page(pending, null, null, null, now, cursorId, 21));
+        List<Query> searchTiers = CertificateQueries.searchTiers(PROBE);
+        for (int i = 0; i < searchTiers.size(); i++) {
+            certificateQueries.put("searchByName(tier " + (i + 1) + ")", searchTiers.get(i).limit(50));
+        }
+        certificateQueries.put("transitionStatus", CertificateQueries.decidable(cursorId, pending, PROBE, now));
+        certificateQueries.put("deleteOwned", CertificateQueries.owned(cursorId, PROBE));
+        certificateQueries.put("leaseNextPending", CertificateQueries.nextPending(now).limit(1));
+        certificateQueries.put("renewLeases", CertificateQueries.liveLeases(PROBE, now));
+        certificateQueries.put("renewLeases(result)", CertificateQueries.leasesUntil(PROBE, now));
+        certificateQueries.put("releaseLease", CertificateQueries.lease(cursorId, PROBE));
+        certificateQueries.forEach((name, query) ->
+            check(plans, collectionScans, "CertificateRepository." + name, Certificate.class, query));
+        
+        check(plans, collectionScans, "UserRepository.findByUsername", User.class, UserQueries.byUsername(PROBE));
+        check(plans, collectionScans, "UserRepository.existsByUsername", User.class, UserQueries.byUsername(PROBE).limit(1));
+        check(plans, collectionScans, "UserRepository.findByUsernameIn", User.class, UserQueries.byUsernames(List.of(PROBE)));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("plans", plans);
+        report.put("collectionScans", collectionScans);
+        return report;
+    }
+    
+    // Maps the query the way MongoTemplate does before sending it, so field
+    // names, enums and dates reach explain exactly as the repository sends them
+    private void check(Map<String, Object> plans, List<String> collectionScans, String name,
+                       Class<?> entityType, Query query) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+        
+        var find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityType)).find(filter);
+        if (!sort.isEmpty()) {
+            find = find.sort(sort);
+        }
+        if (query.isLimited()) {
+            find = find.limit(query.getLimit());
+        }
+        
+        Document explain = find.explain();
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        Object winningPlan = queryPlanner == null ? null : queryPlanner.get("winningPlan");
+        
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        plans.put(name, stages);
+        
+        // A variant such as "findPage(status)" is judged by its method name
+        int variant = name.indexOf('(');
+        String method = variant < 0 ? name : name.substring(0, variant);
+        if (stages.contains("COLLSCAN") && !EXPECTED_COLLSCANS.contains(method)) {
+            collectionScans.add(name);
+        }
+    }
+    
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage != null) {
+                stages.add(stage.toString());
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
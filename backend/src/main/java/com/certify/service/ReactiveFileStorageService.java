@@ -0,0 +1,47 @@
+package com.certify.service;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read side of FileStorageService on the reactive driver. GridFS chunks are
+// emitted as DataBuffers only as fast as the client drains them, so a slow
+// download holds a subscription rather than a thread.
+@Service
+@ConditionalOnProperty(name = "storage.reactive.enabled", havingValue = "true")
+public class ReactiveFileStorageService {
+    
+    private final ReactiveGridFsTemplate reactiveGridFsTemplate;
+    private final Counter bytesRead;
+    private final Timer readTimer;
+    
+    public ReactiveFileStorageService(ReactiveGridFsTemplate reactiveGridFsTemplate, MeterRegistry meterRegistry) {
+        this.reactiveGridFsTemplate = reactiveGridFsTemplate;
+        this.bytesRead = FileStorageService.gridFsBytes(meterRegistry, "read");
+        this.readTimer = FileStorageService.gridFsStream(meterRegistry, "read");
+    }
+    
+    public Mono<GridFSFile> findFile(String fileId) {
+        return reactiveGridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId)));
+    }
+    
+    public Flux<DataBuffer> download(GridFSFile file) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return reactiveGridFsTemplate.getResource(file)
+                .flatMapMany(ReactiveGridFsResource::getDownloadStream)
+                .doOnNext(buffer -> bytesRead.increment(buffer.readableByteCount()))
+                .doFinally(signal -> sample.stop(readTimer));
+        });
+    }
+}
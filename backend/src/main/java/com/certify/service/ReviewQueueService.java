@@ -0,0 +1,70 @@
+package com.certify.service;
+
+import com.certify.model.Certificate;
+import com.certify.repository.CertificateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Staff review work queue. Instead of every reviewer pulling the whole PENDING
+// list and opening the same certificates, each one leases the next pending
+// certificates for a while. A lease that is neither decided nor released
+// expires and the certificate goes back into the queue. Lease fields are not
+// evicted from the certificates cache; the cached copies only serve files.
+@Service
+public class ReviewQueueService {
+    
+    private final CertificateRepository certificateRepository;
+    
+    @Value("${review.lease.duration:15m}")
+    private Duration leaseDuration;
+    
+    @Value("${review.lease.max-count:50}")
+    private int maxLeaseCount;
+    
+    public ReviewQueueService(CertificateRepository certificateRepository) {
+        this.certificateRepository = certificateRepository;
+    }
+    
+    // Returns up to `count` certificates leased to the reviewer. Leases they
+    // already hold are renewed and count towards it, so asking again (e.g. a
+    // page reload) does not pile up more work than they asked for.
+    public Map<String, Object> lease(String reviewer, int count) {
+        if (count < 1 || count > maxLeaseCount) {
+            throw new RuntimeException("count must be between 1 and " + maxLeaseCount);
+        }
+        
+        // Mongo stores milliseconds, so truncate to match renewed leases on read-back
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime leaseExpiry = now.plus(leaseDuration);
+        
+        List<Certificate> leased = new ArrayList<>(certificateRepository.renewLeases(reviewer, now, leaseExpiry));
+        int renewed = leased.size();
+        while (leased.size() < count) {
+            Certificate next = certificateRepository.leaseNextPending(reviewer, now, leaseExpiry);
+            if (next == null) {
+                break;
+            }
+            leased.add(next);
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("certificates", leased);
+        result.put("leaseExpiry", leaseExpiry);
+        result.put("renewed", renewed);
+        result.put("leased", leased.size() - renewed);
+        return result;
+    }
+    
+    public void release(String certificateId, String reviewer) {
+        if (!certificateRepository.releaseLease(certificateId, reviewer)) {
+            throw new RuntimeException("No lease held on this certificate");
+        }
+    }
+}
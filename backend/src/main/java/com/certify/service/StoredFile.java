@@ -0,0 +1,23 @@
+package com.certify.service;
+
+public class StoredFile {
+    private final String fileId;
+    private final String sha256;
+    private final long size;
+    private final boolean deduplicated;
+    
+    public StoredFile(String fileId, String sha256, long size, boolean deduplicated) {
+        this.fileId = fileId;
+        this.sha256 = sha256;
+        this.size = size;
+        this.deduplicated = deduplicated;
+    }
+    
+    public String getFileId() { return fileId; }
+    
+    public String getSha256() { return sha256; }
+    
+    public long getSize() { return size; }
+    
+    public boolean isDeduplicated() { return deduplicated; }
+}
@@ -0,0 +1,30 @@
+package com.certify.service;
+
+import com.certify.config.CacheConfig;
+import com.certify.model.UserIdentity;
+import com.certify.repository.UserRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import java.util.Optional;
+
+// Resolves a username (the JWT subject) to the user's id, name and role
+// through a bounded, expiring cache, so authenticated requests do not each
+// pay a users lookup. Nothing in the application changes a user's role or
+// deletes a user; a path that does must evict CacheConfig.USERS for that
+// username. The expiry bounds how long a change made directly in the
+// database can go unseen.
+@Service
+public class UserIdentityService {
+    
+    private final UserRepository userRepository;
+    
+    public UserIdentityService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+    
+    // Unknown usernames are not cached, so a user registered later is found at once
+    @Cacheable(value = CacheConfig.USERS, key = "#username", unless = "#result == null")
+    public Optional<UserIdentity> findByUsername(String username) {
+        return userRepository.findByUsername(username, UserIdentity.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.certify;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+
+// Base for tests that need the whole application. Every subclass shares one
+// in-process MongoDB wire-protocol server (so no mongod is needed) and one
+// cached Spring context, so tests must only assert on data they inserted.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public abstract class MongoIntegrationTest {
+
+    private static final MongoServer MONGO = new MongoServer(new MemoryBackend());
+
+    private static final InetSocketAddress ADDRESS = MONGO.bind();
+
+    private static final String CACHE_DIRECTORY;
+
+    static {
+        try {
+            CACHE_DIRECTORY = Files.createTempDirectory("certificate-test-cache").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(MONGO::shutdownNow));
+    }
+
+    @Autowired
+    protected MongoTemplate mongoTemplate;
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> "mongodb://127.0.0.1:" + ADDRESS.getPort() + "/certify_test");
+        registry.add("spring.data.mongodb.database", () -> "certify_test");
+        registry.add("mongo.query-plan-check", () -> "off");
+        registry.add("stats.reconcile.cron", () -> "-");
+        registry.add("management.server.port", () -> "0");
+        registry.add("storage.disk-cache.directory", () -> CACHE_DIRECTORY);
+    }
+}
@@ -0,0 +1,70 @@
+package com.certify.controller;
+
+import com.certify.MongoIntegrationTest;
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.certify.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Keyset paging where several certificates share an uploadDate: the cursor's
+// certificateId tie-break has to carry the next page across them, so every
+// certificate comes back exactly once
+class CertificatePageTest extends MongoIntegrationTest {
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void pagesAcrossEqualUploadDatesReturnEveryCertificateOnce() throws Exception {
+        LocalDateTime shared = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Certificate certificate = new Certificate();
+            certificate.setStudentId("pager");
+            certificate.setCertificateName("Page Test " + i);
+            certificate.setStatus(Certificate.Status.PENDING);
+            certificate.setUploadDate(i < 4 ? shared : shared.minusMinutes(i));
+            inserted.add(mongoTemplate.insert(certificate).getCertificateId());
+        }
+
+        String token = jwtUtil.generateToken("staff", User.Role.STAFF.name());
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            String uri = "http://localhost:" + port + "/api/staff/certificates/page?studentId=pager&size=2" +
+                         (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+
+            JsonNode page = objectMapper.readTree(response.body());
+            page.get("content").forEach(certificate -> paged.add(certificate.get("certificateId").asText()));
+            cursor = page.get("hasMore").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(paged).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(inserted);
+    }
+}
@@ -0,0 +1,90 @@
+package com.certify.controller;
+
+import com.certify.MongoIntegrationTest;
+import com.certify.model.Certificate;
+import com.certify.model.User;
+import com.certify.security.JwtUtil;
+import org.junit.jupiter.api.RepeatedTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many reviewers deciding the same pending certificate at once: the
+// conditional update must let exactly one of them through and answer every
+// other one with 409 Conflict, whether they verify or reject
+class StaffDecisionConcurrencyTest extends MongoIntegrationTest {
+    
+    private static final int REVIEWERS = 16;
+    
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    @RepeatedTest(10)
+    void exactlyOneReviewerDecidesAPendingCertificate() throws Exception {
+        Certificate certificate = new Certificate();
+        certificate.setStudentId("student1");
+        certificate.setCertificateName("Concurrency Test Certificate");
+        certificate.setStatus(Certificate.Status.PENDING);
+        certificate.setUploadDate(LocalDateTime.now());
+        String id = mongoTemplate.insert(certificate).getCertificateId();
+        
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REVIEWERS; i++) {
+            String token = jwtUtil.generateToken("staff" + i, User.Role.STAFF.name());
+            String action = i % 2 == 0 ? "verify" : "reject";
+            requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/staff/certificates/" + id + "/" + action))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"remarks\":\"" + action + " by staff" + i + "\"}"))
+                .build());
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(REVIEWERS);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (HttpRequest request : requests) {
+                statuses.add(executor.submit(() -> {
+                    go.await();
+                    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }));
+            }
+            go.countDown();
+            
+            int ok = 0;
+            int conflict = 0;
+            for (Future<Integer> status : statuses) {
+                switch (status.get()) {
+                    case 200 -> ok++;
+                    case 409 -> conflict++;
+                    default -> { }
+                }
+            }
+            assertThat(ok).isEqualTo(1);
+            assertThat(conflict).isEqualTo(REVIEWERS - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        Certificate decided = mongoTemplate.findById(id, Certificate.class);
+        assertThat(decided.getStatus()).isNotEqualTo(Certificate.Status.PENDING);
+        assertThat(decided.getVerifiedBy()).startsWith("staff");
+    }
+}
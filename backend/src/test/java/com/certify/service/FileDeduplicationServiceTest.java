@@ -0,0 +1,76 @@
+package com.certify.service;
+
+import com.certify.MongoIntegrationTest;
+import com.certify.model.Certificate;
+import com.certify.model.FileBlob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Legacy GridFS files shared by several certificates: the migration must
+// count one reference per certificate, so deleting one of them leaves the
+// chunks in place for the rest
+class FileDeduplicationServiceTest extends MongoIntegrationTest {
+
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private FileDeduplicationService fileDeduplicationService;
+
+    @Test
+    void sharedLegacyFileCountsEveryCertificate() {
+        byte[] bytes = "shared legacy certificate".getBytes(StandardCharsets.UTF_8);
+        // Two legacy copies of the same bytes: one shared by three certificates, one by a fourth
+        String shared = legacyFile(bytes);
+        String duplicate = legacyFile(bytes);
+        for (int i = 0; i < 3; i++) {
+            legacyCertificate(shared);
+        }
+        legacyCertificate(duplicate);
+
+        fileDeduplicationService.migrate();
+
+        FileBlob blob = mongoTemplate.findOne(new Query(Criteria.where("fileId").is(shared)), FileBlob.class);
+        assertThat(blob).isNotNull();
+        assertThat(blob.getRefCount()).isEqualTo(4);
+        assertThat(mongoTemplate.count(new Query(Criteria.where("fileId").is(shared)), Certificate.class)).isEqualTo(4);
+        assertThat(storedFile(duplicate)).isFalse();
+
+        // Re-running changes nothing
+        fileDeduplicationService.migrate();
+        assertThat(mongoTemplate.findById(blob.getSha256(), FileBlob.class).getRefCount()).isEqualTo(4);
+
+        fileStorageService.deleteFile(shared);
+        assertThat(mongoTemplate.findById(blob.getSha256(), FileBlob.class).getRefCount()).isEqualTo(3);
+        assertThat(storedFile(shared)).isTrue();
+    }
+
+    private String legacyFile(byte[] bytes) {
+        return gridFsTemplate.store(new ByteArrayInputStream(bytes), "legacy.pdf", "application/pdf").toString();
+    }
+
+    private void legacyCertificate(String fileId) {
+        Certificate certificate = new Certificate();
+        certificate.setStudentId("legacy-student");
+        certificate.setCertificateName("Legacy Certificate");
+        certificate.setFileId(fileId);
+        certificate.setStatus(Certificate.Status.PENDING);
+        certificate.setUploadDate(LocalDateTime.now());
+        mongoTemplate.insert(certificate);
+    }
+
+    private boolean storedFile(String fileId) {
+        return gridFsTemplate.findOne(new Query(Criteria.where("_id").is(fileId))) != null;
+    }
+}